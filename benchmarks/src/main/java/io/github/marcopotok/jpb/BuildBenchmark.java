@@ -0,0 +1,91 @@
+package io.github.marcopotok.jpb;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * {@link PredicateBuilder#build} with an increasing number of predicates, including the resolution of joins.
+ * The {@code fake} benchmarks measure the library alone, the {@code hibernate} ones add the cost of the provider.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int predicates;
+
+    private final FakeCriteriaBuilder fakeCriteriaBuilder = new FakeCriteriaBuilder();
+    private final PredicateBuilderOptions fakeOptions = PredicateBuilderOptions.builder()
+            .withPrefetchEngine(new FakePrefetchEngine())
+            .build();
+    private QueryTemplate<Object> fakeTemplate;
+
+    @Setup
+    public void setUp() {
+        fakeTemplate = Workloads.filters(new PredicateBuilder<>(fakeOptions), predicates).compile();
+    }
+
+    @Benchmark
+    public Predicate fakeBuild() {
+        return Workloads.filters(new PredicateBuilder<>(fakeOptions), predicates)
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), fakeCriteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate fakeBuildComposed() {
+        return Workloads.composedFilters(new PredicateBuilder<>(fakeOptions), fakeOptions, predicates)
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), fakeCriteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate fakeBuildTemplate() {
+        return fakeTemplate.build(new FakeRoot<>(""), new FakeCriteriaQuery(), fakeCriteriaBuilder);
+    }
+
+    @Benchmark
+    public CriteriaQuery<Order> hibernateBuild(HibernateState.Session session) {
+        CriteriaQuery<Order> query = session.criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        return query.where(Workloads.filters(PredicateBuilder.of(Order.class), predicates)
+                .build(root, query, session.criteriaBuilder));
+    }
+
+    @Benchmark
+    public CriteriaQuery<Order> hibernateBuildComposed(HibernateState.Session session) {
+        CriteriaQuery<Order> query = session.criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        PredicateBuilderOptions options = PredicateBuilderOptions.createDefault();
+        return query.where(Workloads.composedFilters(new PredicateBuilder<Order>(options), options, predicates)
+                .build(root, query, session.criteriaBuilder));
+    }
+
+    @Benchmark
+    public List<Order> hibernateExecute(HibernateState.Session session) {
+        List<Order> orders = session.entityManager.createQuery(hibernateBuild(session))
+                .setMaxResults(10)
+                .getResultList();
+        session.entityManager.clear();
+        return orders;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.marcopotok.jpb;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+
+/**
+ * Hibernate on an in-memory H2 database, shared by all the threads of a trial.
+ */
+@State(Scope.Benchmark)
+public class HibernateState {
+
+    EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        entityManagerFactory = Database.create();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManagerFactory.close();
+    }
+
+    /**
+     * Entity manager owned by a single benchmark thread.
+     */
+    @State(Scope.Thread)
+    public static class Session {
+
+        EntityManager entityManager;
+        CriteriaBuilder criteriaBuilder;
+
+        @Setup(Level.Trial)
+        public void setUp(HibernateState hibernate) {
+            entityManager = hibernate.entityManagerFactory.createEntityManager();
+            criteriaBuilder = entityManager.getCriteriaBuilder();
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            entityManager.close();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package io.github.marcopotok.jpb;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * {@link DefaultPrefetchEngine#prefetch} of flat and deeply nested specifications.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrefetchBenchmark {
+
+    @Param({"flat", "nested"})
+    private String shape;
+
+    private final DefaultPrefetchEngine engine = new DefaultPrefetchEngine();
+    private String fakeSpec;
+    private String orderSpec;
+
+    @Setup
+    public void setUp() {
+        fakeSpec = Workloads.fakePrefetch(shape);
+        orderSpec = Workloads.orderPrefetch(shape);
+    }
+
+    @Benchmark
+    public FakeRoot<Object> fakePrefetch() {
+        FakeRoot<Object> root = new FakeRoot<>("");
+        engine.prefetch(fakeSpec, root, new FakeCriteriaQuery());
+        return root;
+    }
+
+    @Benchmark
+    public CriteriaQuery<Order> hibernatePrefetch(HibernateState.Session session) {
+        CriteriaQuery<Order> query = session.criteriaBuilder.createQuery(Order.class);
+        Root<Order> root = query.from(Order.class);
+        engine.prefetch(orderSpec, root, query);
+        return query;
+    }
+}
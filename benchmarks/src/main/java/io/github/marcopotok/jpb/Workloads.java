@@ -0,0 +1,57 @@
+package io.github.marcopotok.jpb;
+
+import java.util.List;
+
+/**
+ * Predicates and prefetch specifications shared by the benchmarks, valid both for the fakes and for the
+ * {@link io.github.marcopotok.jpb.model.Order} model.
+ */
+final class Workloads {
+
+    private static final List<String> PATHS = List.of("status", "customer.name", "customer.referrer.name", "id");
+
+    private Workloads() {
+    }
+
+    static <T> PredicateBuilder<T> filters(PredicateBuilder<T> builder, int predicates) {
+        for (int i = 0; i < predicates; i++) {
+            filter(builder, i);
+        }
+        return builder;
+    }
+
+    static <T> PredicateBuilder<T> composedFilters(PredicateBuilder<T> builder, PredicateBuilderOptions options,
+            int predicates) {
+        for (int i = 0; i < predicates; i++) {
+            builder.and(filter(new PredicateBuilder<>(options), i));
+        }
+        return builder;
+    }
+
+    static <T> PredicateBuilder<T> filter(PredicateBuilder<T> builder, int index) {
+        String path = PATHS.get(index % PATHS.size());
+        boolean isId = "id".equals(path);
+        switch (index % 3) {
+            case 0:
+                return isId ? builder.withProperty(path, (long) index) : builder.withProperty(path, "value " + index);
+            case 1:
+                return isId ?
+                        builder.withPropertyIn(path, List.of(1L, 2L, (long) index)) :
+                        builder.withPropertyIn(path, List.of("a", "b", "value " + index));
+            default:
+                return isId ?
+                        builder.withPropertyNot(path, (long) index) :
+                        builder.withPropertyLikeIgnoreCase(path, "*" + index + "*");
+        }
+    }
+
+    static String fakePrefetch(String shape) {
+        return "flat".equals(shape) ?
+                "first,second,third,fourth,fifth,sixth,seventh,eighth" :
+                "first.[second.[third.[fourth,fifth],sixth.[seventh,eighth]],ninth.[tenth,eleventh.twelfth]]";
+    }
+
+    static String orderPrefetch(String shape) {
+        return "flat".equals(shape) ? "customer,items" : "customer.referrer.[referrer.referrer,orders]";
+    }
+}
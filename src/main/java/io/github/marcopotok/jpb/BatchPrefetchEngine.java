@@ -0,0 +1,115 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceUnitUtil;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+
+/**
+ * Engine loading the attributes with separate queries after the main one, which is left without fetch joins and so
+ * can be paginated. Each attribute is loaded for batches of at most {@code batchSize} entities with a query fetching
+ * it {@code where id in (...)}; nested attributes are loaded in the same way from the entities loaded before them.
+ * <p>
+ * Attributes are loaded only for queries executed by {@link QueryExecutor}, sequentially in its
+ * {@link EntityManager}: entities loaded by other entity managers would not initialize the ones found.
+ * Entities along the fetched paths must have a single id attribute.
+ */
+public final class BatchPrefetchEngine implements PrefetchEngine {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final int batchSize;
+
+    public BatchPrefetchEngine() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param batchSize - must be positive
+     */
+    public BatchPrefetchEngine(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public <T> void prefetch(String attributeList, Root<T> root, CriteriaQuery<?> query) {
+        // loaded after the query
+    }
+
+    @Override
+    public <T> void prefetch(FetchTree tree, Root<T> root, CriteriaQuery<?> query) {
+        // loaded after the query
+    }
+
+    @Override
+    public <T> void load(Class<T> entityClass, List<T> entities, FetchTree tree, EntityManager entityManager) {
+        if (!tree.isEmpty() && !entities.isEmpty()) {
+            load(entityManager.getMetamodel().entity(entityClass), entities, tree, entityManager);
+        }
+    }
+
+    private void load(EntityType<?> type, Collection<?> entities, FetchTree tree, EntityManager entityManager) {
+        PersistenceUnitUtil persistenceUnitUtil = entityManager.getEntityManagerFactory().getPersistenceUnitUtil();
+        Set<Object> ids = new LinkedHashSet<>();
+        for (Object entity : entities) {
+            ids.add(persistenceUnitUtil.getIdentifier(entity));
+        }
+        tree.getChildren().forEach((attributeName, subtree) -> {
+            Attribute<?, ?> attribute = Metamodels.getAttribute(type, attributeName);
+            if (attribute == null) {
+                throw new IllegalArgumentException("Unknown attribute " + attributeName + " of " + type.getName());
+            }
+            List<?> parents = findAll(type, attributeName, ids, entityManager);
+            ManagedType<?> targetType = Metamodels.getTargetType(attribute);
+            if (!subtree.isEmpty() && targetType instanceof EntityType) {
+                load((EntityType<?>) targetType, getValues(attribute, parents), subtree, entityManager);
+            }
+        });
+    }
+
+    private <P> List<P> findAll(EntityType<P> type, String attributeName, Set<Object> ids,
+            EntityManager entityManager) {
+        String idName = type.getId(type.getIdType().getJavaType()).getName();
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        List<P> parents = new ArrayList<>();
+        for (List<Object> chunk : InLists.chunk(ids, batchSize)) {
+            CriteriaQuery<P> query = criteriaBuilder.createQuery(type.getJavaType());
+            Root<P> root = query.from(type);
+            root.fetch(attributeName, JoinType.LEFT);
+            query.select(root).distinct(true).where(root.get(idName).in(chunk));
+            parents.addAll(entityManager.createQuery(query).getResultList());
+        }
+        return parents;
+    }
+
+    private static Collection<Object> getValues(Attribute<?, ?> attribute, List<?> parents) {
+        Map<Object, Boolean> values = new IdentityHashMap<>();
+        for (Object parent : parents) {
+            Object value = Metamodels.getValue(attribute, parent);
+            if (value instanceof Collection) {
+                ((Collection<?>) value).forEach(element -> values.put(element, Boolean.TRUE));
+            } else if (value instanceof Map) {
+                ((Map<?, ?>) value).values().forEach(element -> values.put(element, Boolean.TRUE));
+            } else if (value != null) {
+                values.put(value, Boolean.TRUE);
+            }
+        }
+        return values.keySet();
+    }
+}
@@ -0,0 +1,348 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.Attribute;
+
+/**
+ * State of a single build: the query being built, the joins created so far and the values bound to placeholders.
+ * A new context is created on every build, so builders and templates do not retain any query specific state.
+ */
+final class BuildContext<T> {
+
+    private final Root<T> root;
+    private final CriteriaQuery<?> query;
+    private final CommonAbstractCriteria statement;
+    private final CriteriaBuilder criteriaBuilder;
+    private final boolean isUniqueJoins;
+    private final boolean isInListPadding;
+    private final int inListChunkSize;
+    private final boolean isInListRangeCompression;
+    private final Map<String, ?> values;
+    private final ParameterBindings parameterBindings;
+    private final boolean isInnerJoinPromotion;
+    private final Map<String, JoinType> joinTypes;
+    private final boolean isPluralSemiJoin;
+    private final Set<String> semiJoinKeys;
+    private final List<SemiJoin> semiJoins = new ArrayList<>();
+    private final Map<String, SemiJoin> semiJoinCache = new HashMap<>();
+    private final Set<String> innerJoinKeys = new HashSet<>();
+    private final Map<String, Join<?, ?>> joinCache = new HashMap<>();
+
+    /**
+     * @param joinTypes         join types by join key, overriding the automatic choice
+     * @param semiJoinKeys      join keys of the relations to filter through EXISTS subqueries
+     * @param parameterBindings if null, values are emitted as literals
+     */
+    BuildContext(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            PredicateBuilderOptions options, Map<String, JoinType> joinTypes, Set<String> semiJoinKeys,
+            Map<String, ?> values, ParameterBindings parameterBindings) {
+        this(root, query, query, criteriaBuilder, options, joinTypes, semiJoinKeys, values, parameterBindings);
+    }
+
+    /**
+     * @param query     shaped by the predicates, with distinct, ordering, grouping or selection
+     * @param statement creating the subqueries of the predicates, the query itself unless building a subquery or a
+     *                  bulk statement
+     */
+    BuildContext(Root<T> root, CriteriaQuery<?> query, CommonAbstractCriteria statement,
+            CriteriaBuilder criteriaBuilder, PredicateBuilderOptions options, Map<String, JoinType> joinTypes,
+            Set<String> semiJoinKeys, Map<String, ?> values, ParameterBindings parameterBindings) {
+        this.root = root;
+        this.query = query;
+        this.statement = statement;
+        this.criteriaBuilder = criteriaBuilder;
+        this.isUniqueJoins = options.isJoinCacheIsEnabled();
+        this.isInListPadding = options.isInListPadding();
+        this.inListChunkSize = options.getInListChunkSize();
+        this.isInListRangeCompression = options.isInListRangeCompression();
+        this.isInnerJoinPromotion = options.isInnerJoinPromotion();
+        this.joinTypes = joinTypes;
+        this.isPluralSemiJoin = options.isPluralSemiJoin();
+        this.semiJoinKeys = semiJoinKeys;
+        this.values = values;
+        this.parameterBindings = options.isParameterizedValues() ? parameterBindings : null;
+    }
+
+    Root<T> getRoot() {
+        return root;
+    }
+
+    CriteriaQuery<?> getQuery() {
+        return query;
+    }
+
+    CriteriaBuilder getCriteriaBuilder() {
+        return criteriaBuilder;
+    }
+
+    <U> Subquery<U> subquery(Class<U> type) {
+        return statement.subquery(type);
+    }
+
+    /**
+     * Conjunction of the predicates and of the EXISTS subqueries of semi-joined collections.
+     * Relations of properties on which a predicate rejects null values are inner joined, as the conjunction rejects
+     * any row where they are missing.
+     */
+    Predicate toPredicate(List<PredicateContext<T>> predicates) {
+        if (isInnerJoinPromotion) {
+            predicates.forEach(this::addInnerJoins);
+        }
+        List<Predicate> restrictions = predicates.stream()
+                .map(predicateContext -> predicateContext.toPredicate(this))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        semiJoins.forEach(semiJoin -> restrictions.add(semiJoin.toPredicate(criteriaBuilder)));
+        return restrictions.stream()
+                .reduce(criteriaBuilder::and)
+                .orElseGet(criteriaBuilder::conjunction);
+    }
+
+    /**
+     * @return true if any of the predicates may join relations of the root, before building them
+     */
+    boolean isJoining(List<PredicateContext<T>> predicates) {
+        return predicates.stream().anyMatch(predicateContext -> predicateContext.isJoining(this));
+    }
+
+    /**
+     * @return true if restricting the property joins relations of the root, false if the property is reached with
+     * {@code get} or through the EXISTS subquery of a semi-joined collection
+     */
+    boolean isJoining(PropertyPath propertyPath) {
+        PathPlan pathPlan = PathPlan.of(root.getModel(), propertyPath);
+        return getSemiJoinDepth(pathPlan) == 0 && pathPlan.getJoinDepth(false) > 0;
+    }
+
+    private void addInnerJoins(PredicateContext<T> predicateContext) {
+        PropertyPath propertyPath = predicateContext.getNullRejectedPath(this);
+        if (propertyPath != null) {
+            for (int i = 0; i < propertyPath.getDepth(); i++) {
+                innerJoinKeys.add(propertyPath.getJoinKey(i));
+            }
+        }
+    }
+
+    boolean isParameterized() {
+        return parameterBindings != null;
+    }
+
+    <U> ParameterExpression<U> parameter(U value) {
+        return parameterBindings.bind(criteriaBuilder, value);
+    }
+
+    Predicate in(Expression<?> path, Collection<?> values) {
+        IntegralValues integralValues = isInListRangeCompression ? IntegralValues.of(values) : null;
+        return integralValues != null ? in(path, integralValues) : inList(path, values);
+    }
+
+    Predicate notIn(Expression<?> path, Collection<?> values) {
+        IntegralValues integralValues = isInListRangeCompression ? IntegralValues.of(values) : null;
+        return integralValues != null ? notIn(path, integralValues) : notInList(path, values);
+    }
+
+    Predicate in(Expression<?> path, IntegralValues values) {
+        List<Object> residual = values.getResidual();
+        Stream<Predicate> ranges = values.getRanges().stream().map(range -> between(path, range));
+        return Stream.concat(ranges, residual.isEmpty() ? Stream.empty() : Stream.of(inList(path, residual)))
+                .reduce(criteriaBuilder::or)
+                .orElseGet(() -> inList(path, residual));
+    }
+
+    Predicate notIn(Expression<?> path, IntegralValues values) {
+        List<Object> residual = values.getResidual();
+        Stream<Predicate> ranges = values.getRanges().stream().map(range -> between(path, range).not());
+        return Stream.concat(ranges, residual.isEmpty() ? Stream.empty() : Stream.of(notInList(path, residual)))
+                .reduce(criteriaBuilder::and)
+                .orElseGet(() -> notInList(path, residual));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Predicate between(Expression<?> path, IntegralValues.Range range) {
+        Expression<Comparable> comparablePath = (Expression<Comparable>) path;
+        Comparable from = range.getFrom();
+        Comparable to = range.getTo();
+        return isParameterized() ?
+                criteriaBuilder.between(comparablePath, parameter(from), parameter(to)) :
+                criteriaBuilder.between(comparablePath, from, to);
+    }
+
+    private Predicate inList(Expression<?> path, Collection<?> values) {
+        if (!InLists.exceeds(values, inListChunkSize)) {
+            return inChunk(path, values);
+        }
+        return InLists.chunk(values, inListChunkSize)
+                .stream()
+                .map(chunk -> inChunk(path, chunk))
+                .reduce(criteriaBuilder::or)
+                .orElseThrow();
+    }
+
+    private Predicate notInList(Expression<?> path, Collection<?> values) {
+        if (!InLists.exceeds(values, inListChunkSize)) {
+            return inChunk(path, values).not();
+        }
+        return InLists.chunk(values, inListChunkSize)
+                .stream()
+                .map(chunk -> inChunk(path, chunk).not())
+                .reduce(criteriaBuilder::and)
+                .orElseThrow();
+    }
+
+    private Predicate inChunk(Expression<?> path, Collection<?> values) {
+        Collection<?> inValues = isInListPadding ? InLists.pad(values, inListChunkSize) : values;
+        return isParameterized() ? path.in(parameter(inValues)) : path.in(inValues);
+    }
+
+    @SuppressWarnings("unchecked")
+    <U> U valueOf(Placeholder<U> placeholder) {
+        return placeholder == null ? null : (U) values.get(placeholder.getName());
+    }
+
+    <U> Path<U> getPath(String key, Function<Join<?, ?>, Predicate> joinOn) {
+        return getPath(PathPlan.of(root.getModel(), key), joinOn);
+    }
+
+    <U> Path<U> getPath(PropertyPath propertyPath, Function<Join<?, ?>, Predicate> joinOn) {
+        return getPath(PathPlan.of(root.getModel(), propertyPath), joinOn);
+    }
+
+    private <U> Path<U> getPath(PathPlan pathPlan, Function<Join<?, ?>, Predicate> joinOn) {
+        int joinDepth = pathPlan.getJoinDepth(joinOn != null);
+        From<?, ?> joins = getJoins(pathPlan.getPropertyPath(), joinDepth, joinOn != null);
+        return pathPlan.getPath(addRestrictions(joins, joinOn), joinDepth);
+    }
+
+    /**
+     * Restrict the property, either in the query or, if the path crosses a semi-joined collection, in the EXISTS
+     * subquery of the collection
+     *
+     * @param restriction predicate on the path of the property
+     * @return the predicate, or null if added to a subquery
+     */
+    <U> Predicate toPredicate(PropertyPath propertyPath, Function<Path<U>, Predicate> restriction) {
+        PathPlan pathPlan = PathPlan.of(root.getModel(), propertyPath);
+        int semiJoinDepth = getSemiJoinDepth(pathPlan);
+        if (semiJoinDepth == 0) {
+            return restriction.apply(getPath(pathPlan, null));
+        }
+        SemiJoin semiJoin = getSemiJoin(propertyPath.getJoinKey(semiJoinDepth - 1));
+        semiJoin.add(restriction.apply(semiJoin.getPath(pathPlan)));
+        return null;
+    }
+
+    private int getSemiJoinDepth(PathPlan pathPlan) {
+        PropertyPath propertyPath = pathPlan.getPropertyPath();
+        for (int i = 0; i < propertyPath.getDepth(); i++) {
+            String joinKey = propertyPath.getJoinKey(i);
+            if (semiJoinKeys.contains(joinKey)
+                    || isPluralSemiJoin && pathPlan.getPluralDepth() == i + 1 && !joinTypes.containsKey(joinKey)) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private SemiJoin getSemiJoin(String joinKey) {
+        if (isUniqueJoins) {
+            return semiJoinCache.computeIfAbsent(joinKey, ignored -> addSemiJoin());
+        }
+        return addSemiJoin();
+    }
+
+    private SemiJoin addSemiJoin() {
+        SemiJoin semiJoin = new SemiJoin(statement, root);
+        semiJoins.add(semiJoin);
+        return semiJoin;
+    }
+
+    /**
+     * @param isRestricted true if the last join will be restricted, in which case it cannot be a fetch nor be
+     *                     promoted to inner join
+     */
+    private From<?, ?> getJoins(PropertyPath propertyPath, int depth, boolean isRestricted) {
+        From<?, ?> fromPath = root;
+        for (int i = 0; i < depth; i++) {
+            boolean isRestrictedJoin = isRestricted && i == depth - 1;
+            fromPath = getJoin(propertyPath.getJoinKey(i), fromPath, propertyPath.getAttribute(i), isRestrictedJoin);
+        }
+        return fromPath;
+    }
+
+    private From<?, ?> addRestrictions(From<?, ?> path, Function<Join<?, ?>, Predicate> joinOn) {
+        if (path instanceof Join && joinOn != null) {
+            Join<?, ?> join = (Join<?, ?>) path;
+            return join.on(joinOn.apply(join));
+        }
+        return path;
+    }
+
+    private Join<?, ?> getJoin(String joinKey, From<?, ?> path, String attributeName, boolean isRestricted) {
+        Join<?, ?> join = isUniqueJoins ? joinCache.get(joinKey) : null;
+        if (join != null && (!isRestricted || !(join instanceof Fetch))) {
+            return join;
+        }
+        JoinType joinType = getJoinType(joinKey, isRestricted);
+        Join<?, ?> fetchJoin = isRestricted ? null : getFetchJoin(joinKey, path, attributeName, joinType);
+        join = fetchJoin != null ? fetchJoin : path.join(attributeName, joinType);
+        if (isUniqueJoins) {
+            joinCache.putIfAbsent(joinKey, join);
+        }
+        return join;
+    }
+
+    /**
+     * A to-one fetch is joined like any other relation, so it can be reused to filter instead of joining the same
+     * relation twice. Fetched collections are not reused, because filtering them would fetch only part of their
+     * elements. The join type of the fetch must match an explicit join type, while a promotion to inner join is not
+     * needed as the predicates reject the rows without the relation anyway.
+     *
+     * @return the fetch of the attribute usable as join, or null
+     */
+    private Join<?, ?> getFetchJoin(String joinKey, From<?, ?> path, String attributeName, JoinType joinType) {
+        for (Fetch<?, ?> fetch : path.getFetches()) {
+            Attribute<?, ?> attribute = fetch.getAttribute();
+            if (fetch instanceof Join && attributeName.equals(attribute.getName()) && !attribute.isCollection()
+                    && (fetch.getJoinType() == joinType || !joinTypes.containsKey(joinKey))) {
+                return (Join<?, ?>) fetch;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A restricted join is not promoted: the null-rejecting predicates which caused the promotion may apply to
+     * another join of the same relation, so an inner join would drop the rows not matching the restriction.
+     */
+    private JoinType getJoinType(String joinKey, boolean isRestricted) {
+        JoinType joinType = joinTypes.get(joinKey);
+        if (joinType != null) {
+            return joinType;
+        }
+        return innerJoinKeys.contains(joinKey) && !isRestricted ? JoinType.INNER : JoinType.LEFT;
+    }
+}
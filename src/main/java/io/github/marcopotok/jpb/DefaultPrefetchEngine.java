@@ -1,101 +1,132 @@
 package io.github.marcopotok.jpb;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.Fetch;
-import jakarta.persistence.criteria.FetchParent;
-import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
 
+/**
+ * Stateless engine: fetches are deduplicated against the fetches already present on the root of the query, so a
+ * single instance can be shared by all queries and threads. Specifications are parsed into {@link FetchTree}s, cached
+ * up to {@value FetchTree#MAX_CACHED_SPECS} distinct ones.
+ * <p>
+ * Attributes are fetched only by queries selecting the root entity: projections, aggregations and counts are left
+ * without fetches. When the selection is not set yet, the result type of the query must be the class of the root.
+ * <p>
+ * Unless allowed, fetching collections in separate branches in the same query is rejected, as the rows of the
+ * collections would be multiplied with each other; collections nested in one another are fetched as a chain.
+ * Collections are detected with the metamodel of the root.
+ */
 class DefaultPrefetchEngine implements PrefetchEngine {
-    private static final Pattern NESTED_ATTRIBUTES_MATCHER = Pattern.compile("^\\[(.*)]$");
-    private static final int NESTED_LIST_GROUP = 1;
-    private static final char LIST_START_CHAR = '[';
-    private static final char LIST_END_CHAR = ']';
-    private static final String ATTRIBUTE_CHAIN_DELIMITER = "\\.";
-    private static final char ATTRIBUTES_DELIMITER = ',';
+    static final DefaultPrefetchEngine SHARED = new DefaultPrefetchEngine();
+    static final DefaultPrefetchEngine SHARED_WITH_MULTIPLE_COLLECTIONS = new DefaultPrefetchEngine(true);
 
-    private final Map<String, Fetch<?, ?>> fetchCache = new HashMap<>();
+    private final boolean isMultipleCollectionsAllowed;
+
+    DefaultPrefetchEngine() {
+        this(false);
+    }
+
+    DefaultPrefetchEngine(boolean isMultipleCollectionsAllowed) {
+        this.isMultipleCollectionsAllowed = isMultipleCollectionsAllowed;
+    }
 
     @Override
     public <T> void prefetch(String attributeList, Root<T> root, CriteriaQuery<?> query) {
-        if (Long.class != query.getResultType() && long.class != query.getResultType() && !attributeList.isBlank()) {
-            prefetch(root, attributeList, "");
+        if (!attributeList.isBlank()) {
+            prefetch(FetchTree.of(attributeList), root, query);
         }
     }
 
-    private void prefetch(FetchParent<?, ?> node, String attributeList, String currentPath) {
-        String[] split = splitSameLevel(attributeList);
-        for (String rootAttributes : split) {
-            prefetchChain(node, currentPath, rootAttributes);
+    @Override
+    public <T> void prefetch(FetchTree tree, Root<T> root, CriteriaQuery<?> query) {
+        if (isSelectingRoot(root, query)) {
+            if (!isMultipleCollectionsAllowed) {
+                checkCollections(tree, root.getModel());
+            }
+            tree.applyTo(root);
         }
     }
 
-    private void prefetchChain(FetchParent<?, ?> node, String currentPath, String rootAttributes) {
-        String[] attributes = getAttributes(rootAttributes);
-        FetchParent<?, ?> nodeFetch = node;
-        for (String attribute : attributes) {
-            Matcher matcher = NESTED_ATTRIBUTES_MATCHER.matcher(attribute);
-            if (matcher.matches()) {
-                prefetch(nodeFetch, matcher.group(NESTED_LIST_GROUP), currentPath);
-            } else {
-                currentPath += "." + attribute;
-                nodeFetch = fetch(currentPath, nodeFetch, attribute);
-            }
+    private static boolean isSelectingRoot(Root<?> root, CriteriaQuery<?> query) {
+        List<Expression<?>> groupList = query.getGroupList();
+        if (groupList != null && !groupList.isEmpty()) {
+            return false;
+        }
+        Selection<?> selection = query.getSelection();
+        // some providers return an empty selection without type until it is set
+        if (selection != null && selection.getJavaType() != null) {
+            return selection == root;
         }
+        Class<?> resultType = query.getResultType();
+        return resultType == null || root.getJavaType() == null || resultType.isAssignableFrom(root.getJavaType());
     }
 
-    private String[] splitSameLevel(String attributeList) {
-        List<Integer> splitIndexes = calculateSplitIndexes(attributeList);
-        String[] split = new String[splitIndexes.size() + 1];
-        for (int i = 0, l = splitIndexes.size() + 1; i < l; i++) {
-            boolean firstIteration = i == 0;
-            boolean lastIteration = i == l - 1;
-            int beginIndex = firstIteration ? 0 : splitIndexes.get(i - 1) + 1;
-            int endIndex = lastIteration ? attributeList.length() : splitIndexes.get(i);
-            split[i] = attributeList.substring(beginIndex, endIndex);
+    private static void checkCollections(FetchTree tree, ManagedType<?> model) {
+        List<String> collections = getSiblingCollections(tree, model, "");
+        if (collections.size() > 1) {
+            throw new IllegalArgumentException("Prefetch of collections " + collections
+                    + " in separate branches results in a cartesian product of their rows: fetch at most one branch "
+                    + "of collections per query, or allow it with "
+                    + "PredicateBuilderOptions.Builder#withMultipleCollectionPrefetches");
         }
-        return split;
     }
 
-    private List<Integer> calculateSplitIndexes(String attributeList) {
-        List<Integer> splitIndexes = new ArrayList<>();
-        char[] charArray = attributeList.toCharArray();
-        for (int i = 0, nestingLevel = 0, charArrayLength = charArray.length; i < charArrayLength; i++) {
-            char currentChar = charArray[i];
-            if (currentChar == LIST_START_CHAR) {
-                nestingLevel++;
-            }
-            if (currentChar == LIST_END_CHAR) {
-                nestingLevel--;
+    /**
+     * Collections along a single path from the root are fetched as a chain, each row holding one element of the
+     * deepest one, while collections in sibling branches multiply their rows with each other.
+     *
+     * @return the first collection of each sibling branch holding collections, where the branches split first
+     */
+    private static List<String> getSiblingCollections(FetchTree tree, ManagedType<?> type, String path) {
+        if (type == null) {
+            return List.of();
+        }
+        List<String> collections = new ArrayList<>();
+        List<String> branchCollections = List.of();
+        for (Map.Entry<String, FetchTree> child : tree.getChildren().entrySet()) {
+            Attribute<?, ?> attribute = Metamodels.getAttribute(type, child.getKey());
+            String attributePath = path.isEmpty() ? child.getKey() : path + "." + child.getKey();
+            List<String> childCollections = new ArrayList<>();
+            if (attribute != null && attribute.isCollection()) {
+                childCollections.add(attributePath);
             }
-            if (nestingLevel == 0 && currentChar == ATTRIBUTES_DELIMITER) {
-                splitIndexes.add(i);
+            addCollections(child.getValue(), Metamodels.getTargetType(attribute), attributePath, childCollections);
+            if (!childCollections.isEmpty()) {
+                collections.add(childCollections.get(0));
+                branchCollections = getSiblingCollections(child.getValue(), Metamodels.getTargetType(attribute),
+                        attributePath);
             }
         }
-        return splitIndexes;
+        return collections.size() > 1 ? collections : branchCollections;
     }
 
-    private Fetch<?, ?> fetch(String currentPath, FetchParent<?, ?> node, String attributePath) {
-        return fetchCache.computeIfAbsent(currentPath, ignored -> node.fetch(attributePath, JoinType.LEFT));
+    /**
+     * @return true if the tree fetches a collection of the model, at any depth
+     */
+    static boolean hasCollections(FetchTree tree, ManagedType<?> model) {
+        List<String> collections = new ArrayList<>();
+        addCollections(tree, model, "", collections);
+        return !collections.isEmpty();
     }
 
-    private String[] getAttributes(String attributeList) {
-        int indexOfList = attributeList.indexOf(LIST_START_CHAR);
-        if (indexOfList < 0) {
-            return attributeList.split(ATTRIBUTE_CHAIN_DELIMITER);
-        } else {
-            String[] split = attributeList.substring(0, indexOfList).split(ATTRIBUTE_CHAIN_DELIMITER);
-            String[] attributes = Arrays.copyOf(split, split.length + 1);
-            attributes[attributes.length - 1] = attributeList.substring(indexOfList);
-            return attributes;
+    private static void addCollections(FetchTree tree, ManagedType<?> type, String path, List<String> collections) {
+        if (type == null) {
+            return;
         }
+        tree.getChildren().forEach((attributeName, subtree) -> {
+            Attribute<?, ?> attribute = Metamodels.getAttribute(type, attributeName);
+            String attributePath = path.isEmpty() ? attributeName : path + "." + attributeName;
+            if (attribute != null && attribute.isCollection()) {
+                collections.add(attributePath);
+            }
+            addCollections(subtree, Metamodels.getTargetType(attribute), attributePath, collections);
+        });
     }
 }
@@ -0,0 +1,99 @@
+package io.github.marcopotok.jpb;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Subgraph;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Engine translating the attributes into an {@link EntityGraph}, passed to the query as hint instead of fetching
+ * from the root, so that the provider chooses how to load them.
+ * <p>
+ * A graph is built once per entity manager factory, entity class and distinct tree, and reused by all the queries;
+ * up to {@value #MAX_CACHED_GRAPHS} graphs are cached by the engine, the others are built for each query.
+ * Graphs are passed only to queries executed by {@link QueryExecutor}.
+ */
+public final class EntityGraphPrefetchEngine implements PrefetchEngine {
+
+    /**
+     * Hint loading the attributes of the graph, and the other ones as mapped
+     */
+    public static final String LOAD_GRAPH = "jakarta.persistence.loadgraph";
+    /**
+     * Hint loading the attributes of the graph, and the other ones lazily
+     */
+    public static final String FETCH_GRAPH = "jakarta.persistence.fetchgraph";
+
+    static final int MAX_CACHED_GRAPHS = 1024;
+
+    private final Map<List<Object>, EntityGraph<?>> graphCache = new ConcurrentHashMap<>();
+    private final String hint;
+
+    /**
+     * Initialize the engine with the {@link #LOAD_GRAPH} hint
+     */
+    public EntityGraphPrefetchEngine() {
+        this(LOAD_GRAPH);
+    }
+
+    /**
+     * @param hint - must be {@link #LOAD_GRAPH} or {@link #FETCH_GRAPH}
+     */
+    public EntityGraphPrefetchEngine(String hint) {
+        if (!LOAD_GRAPH.equals(hint) && !FETCH_GRAPH.equals(hint)) {
+            throw new IllegalArgumentException("Unknown entity graph hint " + hint);
+        }
+        this.hint = hint;
+    }
+
+    @Override
+    public <T> void prefetch(String attributeList, Root<T> root, CriteriaQuery<?> query) {
+        // passed as hint
+    }
+
+    @Override
+    public <T> void prefetch(FetchTree tree, Root<T> root, CriteriaQuery<?> query) {
+        // passed as hint
+    }
+
+    @Override
+    public <T> void prepare(Class<T> entityClass, TypedQuery<T> query, FetchTree tree, EntityManager entityManager) {
+        if (!tree.isEmpty()) {
+            query.setHint(hint, getEntityGraph(entityClass, tree, entityManager));
+        }
+    }
+
+    EntityGraph<?> getEntityGraph(Class<?> entityClass, FetchTree tree, EntityManager entityManager) {
+        List<Object> key = List.of(entityManager.getEntityManagerFactory(), entityClass, tree);
+        EntityGraph<?> graph = graphCache.get(key);
+        if (graph == null) {
+            graph = entityManager.createEntityGraph(entityClass);
+            addAll(tree, graph::addAttributeNodes, graph::addSubgraph);
+            if (graphCache.size() < MAX_CACHED_GRAPHS) {
+                EntityGraph<?> cached = graphCache.putIfAbsent(key, graph);
+                return cached == null ? graph : cached;
+            }
+        }
+        return graph;
+    }
+
+    private static void addAll(FetchTree tree, Consumer<String> addAttributeNode,
+            Function<String, Subgraph<?>> addSubgraph) {
+        tree.getChildren().forEach((attributeName, subtree) -> {
+            if (subtree.isEmpty()) {
+                addAttributeNode.accept(attributeName);
+            } else {
+                Subgraph<?> subgraph = addSubgraph.apply(attributeName);
+                addAll(subtree, subgraph::addAttributeNodes, subgraph::addSubgraph);
+            }
+        });
+    }
+}
@@ -0,0 +1,208 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.FetchParent;
+import jakarta.persistence.criteria.JoinType;
+
+/**
+ * Immutable trie of the attributes to fetch, parsed from a prefetch specification such as
+ * {@code user.[profile,roles.permissions],address}. A tree can be cached and applied to any {@link FetchParent}.
+ */
+public final class FetchTree {
+
+    static final int MAX_CACHED_SPECS = 1024;
+
+    private static final Map<String, FetchTree> SPEC_CACHE = new ConcurrentHashMap<>();
+    private static final FetchTree EMPTY = new FetchTree(Map.of());
+    private static final char ATTRIBUTE_CHAIN_DELIMITER = '.';
+    private static final char ATTRIBUTES_DELIMITER = ',';
+    private static final char LIST_START_CHAR = '[';
+    private static final char LIST_END_CHAR = ']';
+
+    private final Map<String, FetchTree> children;
+
+    private FetchTree(Map<String, FetchTree> children) {
+        this.children = children;
+    }
+
+    /**
+     * @return the tree without attributes
+     */
+    public static FetchTree empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Parse the specification, reusing the trees of up to {@value #MAX_CACHED_SPECS} distinct specifications
+     * parsed before, as builders are often created again for every query with the same specifications
+     *
+     * @see #parse(String)
+     */
+    static FetchTree of(String spec) {
+        FetchTree tree = SPEC_CACHE.get(spec);
+        if (tree == null) {
+            tree = parse(spec);
+            if (SPEC_CACHE.size() < MAX_CACHED_SPECS) {
+                SPEC_CACHE.putIfAbsent(spec, tree);
+            }
+        }
+        return tree;
+    }
+
+    /**
+     * Parse the specification in a single pass. Attributes are separated by {@code .} along a chain and by
+     * {@code ,} in a list; a list in square brackets fetches all its chains from the preceding attribute.
+     *
+     * @param spec - must not be null
+     * @return the tree
+     * @throws IllegalArgumentException if the square brackets are not balanced
+     */
+    public static FetchTree parse(String spec) {
+        Node root = new Node();
+        Deque<Node> bases = new ArrayDeque<>();
+        Node base = root;
+        Node current = root;
+        int nameStart = 0;
+        for (int i = 0; i < spec.length(); i++) {
+            char currentChar = spec.charAt(i);
+            if (currentChar == ATTRIBUTE_CHAIN_DELIMITER) {
+                current = current.child(spec, nameStart, i);
+            } else if (currentChar == ATTRIBUTES_DELIMITER) {
+                current.child(spec, nameStart, i);
+                current = base;
+            } else if (currentChar == LIST_START_CHAR) {
+                current = current.child(spec, nameStart, i);
+                bases.push(base);
+                base = current;
+            } else if (currentChar == LIST_END_CHAR) {
+                if (bases.isEmpty()) {
+                    throw new IllegalArgumentException("Unexpected '" + LIST_END_CHAR + "' at " + i + " in " + spec);
+                }
+                current.child(spec, nameStart, i);
+                current = base;
+                base = bases.pop();
+            } else {
+                continue;
+            }
+            nameStart = i + 1;
+        }
+        if (!bases.isEmpty()) {
+            throw new IllegalArgumentException("Missing '" + LIST_END_CHAR + "' in " + spec);
+        }
+        current.child(spec, nameStart, spec.length());
+        return root.toTree();
+    }
+
+    /**
+     * Merge the trees, keeping the attributes of this tree first
+     *
+     * @param other - must not be null
+     * @return the union of the trees
+     */
+    public FetchTree merge(FetchTree other) {
+        if (other.isEmpty() || this.equals(other)) {
+            return this;
+        }
+        if (this.isEmpty()) {
+            return other;
+        }
+        Map<String, FetchTree> merged = new LinkedHashMap<>(children);
+        other.children.forEach((attributeName, subtree) -> merged.merge(attributeName, subtree, FetchTree::merge));
+        return new FetchTree(Collections.unmodifiableMap(merged));
+    }
+
+    /**
+     * @return true if there are no attributes to fetch
+     */
+    public boolean isEmpty() {
+        return children.isEmpty();
+    }
+
+    /**
+     * @return the subtrees by attribute name, in order of declaration
+     */
+    public Map<String, FetchTree> getChildren() {
+        return children;
+    }
+
+    /**
+     * Fetch the attributes from {@code parent}, reusing the fetches already present on it
+     *
+     * @param parent - must not be null
+     */
+    public void applyTo(FetchParent<?, ?> parent) {
+        children.forEach((attributeName, subtree) -> subtree.applyTo(fetch(parent, attributeName)));
+    }
+
+    private static Fetch<?, ?> fetch(FetchParent<?, ?> parent, String attributeName) {
+        for (Fetch<?, ?> fetch : parent.getFetches()) {
+            if (attributeName.equals(fetch.getAttribute().getName())) {
+                return fetch;
+            }
+        }
+        return parent.fetch(attributeName, JoinType.LEFT);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        return o instanceof FetchTree && children.equals(((FetchTree) o).children);
+    }
+
+    @Override
+    public int hashCode() {
+        return children.hashCode();
+    }
+
+    /**
+     * @return the specification of the tree, in normalized form
+     */
+    @Override
+    public String toString() {
+        return children.entrySet()
+                .stream()
+                .map(child -> child.getKey() + child.getValue().toNestedString())
+                .collect(Collectors.joining(String.valueOf(ATTRIBUTES_DELIMITER)));
+    }
+
+    private String toNestedString() {
+        if (children.isEmpty()) {
+            return "";
+        }
+        String nested = toString();
+        return ATTRIBUTE_CHAIN_DELIMITER + (children.size() == 1 ? nested : LIST_START_CHAR + nested + LIST_END_CHAR);
+    }
+
+    private static final class Node {
+        private final Map<String, Node> children = new LinkedHashMap<>();
+
+        /**
+         * @return the child named by {@code spec[start, end)}, or this node if the name is empty
+         */
+        private Node child(String spec, int start, int end) {
+            if (start == end) {
+                return this;
+            }
+            return children.computeIfAbsent(spec.substring(start, end), ignored -> new Node());
+        }
+
+        private FetchTree toTree() {
+            if (children.isEmpty()) {
+                return EMPTY;
+            }
+            Map<String, FetchTree> trees = new LinkedHashMap<>();
+            children.forEach((name, child) -> trees.put(name, child.toTree()));
+            return new FetchTree(Collections.unmodifiableMap(trees));
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+final class InLists {
+
+    private InLists() {
+    }
+
+    /**
+     * @param maxSize maximum size of the padded values, or zero if unlimited
+     * @return the values padded up to the next power of two by repeating the last one
+     */
+    static Collection<?> pad(Collection<?> values, int maxSize) {
+        int size = values.size();
+        int paddedSize = size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+        if (maxSize > 0 && size <= maxSize) {
+            paddedSize = Math.min(paddedSize, maxSize);
+        }
+        if (paddedSize == size) {
+            return values;
+        }
+        List<Object> padded = new ArrayList<>(paddedSize);
+        padded.addAll(values);
+        Object last = padded.get(size - 1);
+        while (padded.size() < paddedSize) {
+            padded.add(last);
+        }
+        return padded;
+    }
+
+    /**
+     * @param chunkSize maximum size of a chunk, or zero if unlimited
+     * @return true if the values must be split in chunks
+     */
+    static boolean exceeds(Collection<?> values, int chunkSize) {
+        return chunkSize > 0 && values.size() > chunkSize;
+    }
+
+    /**
+     * @param chunkSize maximum size of the chunks - must be positive
+     * @return the chunks of values, in iteration order
+     */
+    static <V> List<List<V>> chunk(Collection<V> values, int chunkSize) {
+        List<V> list = values instanceof List ? (List<V>) values : new ArrayList<>(values);
+        List<List<V>> chunks = new ArrayList<>((list.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            chunks.add(list.subList(from, Math.min(from + chunkSize, list.size())));
+        }
+        return chunks;
+    }
+}
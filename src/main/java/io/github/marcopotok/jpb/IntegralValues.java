@@ -0,0 +1,123 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Sorted and distinct integral values of an IN predicate, split in runs of consecutive values, rendered as BETWEEN
+ * predicates, and residual values, rendered as an IN list.
+ * Values are kept unboxed: only the bounds of the runs and the residual values are boxed when building.
+ */
+final class IntegralValues {
+
+    /**
+     * Shortest run of consecutive values worth a BETWEEN predicate: shorter runs cost as many values in the IN list
+     */
+    static final int MIN_RUN_LENGTH = 3;
+
+    private final long[] values;
+    private final boolean isInteger;
+    private final List<Range> ranges = new ArrayList<>();
+    private final List<Object> residual = new ArrayList<>();
+
+    private IntegralValues(long[] values, boolean isInteger) {
+        this.values = values;
+        this.isInteger = isInteger;
+        compress();
+    }
+
+    static IntegralValues of(long[] values) {
+        return new IntegralValues(distinct(values.clone()), false);
+    }
+
+    static IntegralValues of(int[] values) {
+        return new IntegralValues(distinct(Arrays.stream(values).asLongStream().toArray()), true);
+    }
+
+    /**
+     * @return the values, or null if they are not all {@link Long} or all {@link Integer}
+     */
+    static IntegralValues of(Collection<?> values) {
+        if (values.isEmpty()) {
+            return null;
+        }
+        Object first = values.iterator().next();
+        Class<?> type = first == null ? null : first.getClass();
+        if (type != Long.class && type != Integer.class) {
+            return null;
+        }
+        long[] longValues = new long[values.size()];
+        int i = 0;
+        for (Object value : values) {
+            if (value == null || value.getClass() != type) {
+                return null;
+            }
+            longValues[i++] = ((Number) value).longValue();
+        }
+        return new IntegralValues(distinct(longValues), type == Integer.class);
+    }
+
+    List<Range> getRanges() {
+        return Collections.unmodifiableList(ranges);
+    }
+
+    List<Object> getResidual() {
+        return Collections.unmodifiableList(residual);
+    }
+
+    private void compress() {
+        int from = 0;
+        for (int i = 1; i <= values.length; i++) {
+            if (i == values.length || values[i] != values[i - 1] + 1) {
+                addRun(from, i);
+                from = i;
+            }
+        }
+    }
+
+    private void addRun(int from, int to) {
+        if (to - from >= MIN_RUN_LENGTH) {
+            ranges.add(new Range(box(values[from]), box(values[to - 1])));
+        } else {
+            for (int i = from; i < to; i++) {
+                residual.add(box(values[i]));
+            }
+        }
+    }
+
+    private Comparable<?> box(long value) {
+        return isInteger ? Integer.valueOf((int) value) : Long.valueOf(value);
+    }
+
+    private static long[] distinct(long[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (size == 0 || values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    static final class Range {
+        private final Comparable<?> from;
+        private final Comparable<?> to;
+
+        private Range(Comparable<?> from, Comparable<?> to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        Comparable<?> getFrom() {
+            return from;
+        }
+
+        Comparable<?> getTo() {
+            return to;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package io.github.marcopotok.jpb;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+
+/**
+ * Columns of a keyset pagination, ascending unless prefixed by {@code -}, and the cursors over them.
+ * A cursor holds the values of the columns of the last entity of a page, encoded as text and parsed back with the
+ * java type of the columns, so no class is ever named by the cursor.
+ */
+final class Keyset {
+
+    private static final char DESCENDING_PREFIX = '-';
+    private static final char LENGTH_DELIMITER = ':';
+    private static final Map<Class<?>, Function<String, Object>> PARSERS = Map.<Class<?>, Function<String,
+            Object>>ofEntries(
+            Map.entry(String.class, value -> value),
+            Map.entry(Long.class, Long::valueOf),
+            Map.entry(Integer.class, Integer::valueOf),
+            Map.entry(Short.class, Short::valueOf),
+            Map.entry(Byte.class, Byte::valueOf),
+            Map.entry(Double.class, Double::valueOf),
+            Map.entry(Float.class, Float::valueOf),
+            Map.entry(Boolean.class, Boolean::valueOf),
+            Map.entry(Character.class, value -> value.charAt(0)),
+            Map.entry(BigDecimal.class, BigDecimal::new),
+            Map.entry(BigInteger.class, BigInteger::new),
+            Map.entry(UUID.class, UUID::fromString),
+            Map.entry(Instant.class, Instant::parse),
+            Map.entry(LocalDate.class, LocalDate::parse),
+            Map.entry(LocalDateTime.class, LocalDateTime::parse),
+            Map.entry(LocalTime.class, LocalTime::parse),
+            Map.entry(OffsetDateTime.class, OffsetDateTime::parse),
+            Map.entry(ZonedDateTime.class, ZonedDateTime::parse));
+    private static final Map<Class<?>, Class<?>> WRAPPERS = Map.of(long.class, Long.class, int.class, Integer.class,
+            short.class, Short.class, byte.class, Byte.class, double.class, Double.class, float.class, Float.class,
+            boolean.class, Boolean.class, char.class, Character.class);
+
+    private final List<String> columns = new ArrayList<>();
+    private final List<Boolean> descending = new ArrayList<>();
+
+    private Keyset(String[] columns) {
+        if (columns.length == 0) {
+            throw new IllegalArgumentException("Keyset columns must not be empty");
+        }
+        for (String column : columns) {
+            boolean isDescending = column.charAt(0) == DESCENDING_PREFIX;
+            this.columns.add(isDescending ? column.substring(1) : column);
+            this.descending.add(isDescending);
+        }
+    }
+
+    /**
+     * @param columns dotted paths of the properties, ascending unless prefixed by {@code -}; the last must be unique
+     */
+    static Keyset of(String... columns) {
+        return new Keyset(columns);
+    }
+
+    /**
+     * Order the query by the columns and, after a cursor, restrict it to the entities following the cursor with
+     * the expanded comparison {@code a > x or (a = x and b > y)}
+     *
+     * @param cursor - can be null for the first page
+     * @return the predicate, or null without cursor
+     */
+    Predicate toPredicate(BuildContext<?> context, String cursor) {
+        CriteriaBuilder criteriaBuilder = context.getCriteriaBuilder();
+        List<Path<Comparable<Object>>> paths = new ArrayList<>();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < columns.size(); i++) {
+            Path<Comparable<Object>> path = context.getPath(columns.get(i), null);
+            paths.add(path);
+            orders.add(descending.get(i) ? criteriaBuilder.desc(path) : criteriaBuilder.asc(path));
+        }
+        context.getQuery().orderBy(orders);
+        if (cursor == null) {
+            return null;
+        }
+        List<String> values = decode(cursor);
+        Predicate seek = null;
+        Predicate equalPrefix = null;
+        for (int i = 0; i < paths.size(); i++) {
+            Path<Comparable<Object>> path = paths.get(i);
+            Expression<Comparable<Object>> value = toExpression(context, parse(values.get(i), path.getJavaType()));
+            Predicate after = descending.get(i) ? criteriaBuilder.lessThan(path, value) :
+                    criteriaBuilder.greaterThan(path, value);
+            Predicate term = equalPrefix == null ? after : criteriaBuilder.and(equalPrefix, after);
+            seek = seek == null ? term : criteriaBuilder.or(seek, term);
+            Predicate equal = criteriaBuilder.equal(path, value);
+            equalPrefix = equalPrefix == null ? equal : criteriaBuilder.and(equalPrefix, equal);
+        }
+        return seek;
+    }
+
+    /**
+     * @param type   managed type of the entity - must not be null
+     * @param entity - must not be null
+     * @return the cursor of the entities following {@code entity}
+     * @throws IllegalArgumentException if a column is null or of a type without text encoding
+     */
+    String cursorOf(ManagedType<?> type, Object entity) {
+        StringBuilder encoded = new StringBuilder();
+        for (String column : columns) {
+            String value = format(getValue(type, entity, PropertyPath.parse(column)), column);
+            encoded.append(value.length()).append(LENGTH_DELIMITER).append(value);
+        }
+        byte[] bytes = encoded.toString().getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static Object getValue(ManagedType<?> type, Object entity, PropertyPath propertyPath) {
+        ManagedType<?> currentType = type;
+        Object value = entity;
+        for (int i = 0; i <= propertyPath.getDepth() && value != null; i++) {
+            Attribute<?, ?> attribute = Metamodels.getAttribute(currentType, propertyPath.getAttribute(i));
+            if (attribute == null) {
+                throw new IllegalArgumentException("Unknown keyset column " + propertyPath);
+            }
+            value = Metamodels.getValue(attribute, value);
+            currentType = Metamodels.getTargetType(attribute);
+        }
+        return value;
+    }
+
+    private static String format(Object value, String column) {
+        if (value == null) {
+            throw new IllegalArgumentException("Keyset column " + column + " must not be null");
+        }
+        if (!(value instanceof Enum) && !PARSERS.containsKey(value.getClass())) {
+            throw new IllegalArgumentException("Keyset column " + column + " of unsupported type " + value.getClass());
+        }
+        return value instanceof Enum ? ((Enum<?>) value).name() : value.toString();
+    }
+
+    private List<String> decode(String cursor) {
+        List<String> values = new ArrayList<>();
+        try {
+            String encoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int begin = 0;
+            while (begin < encoded.length()) {
+                int delimiter = encoded.indexOf(LENGTH_DELIMITER, begin);
+                int end = delimiter + 1 + Integer.parseInt(encoded.substring(begin, delimiter));
+                values.add(encoded.substring(delimiter + 1, end));
+                begin = end;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor, e);
+        }
+        if (values.size() != columns.size()) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor + " for columns " + columns);
+        }
+        return values;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object parse(String value, Class<?> type) {
+        Class<?> wrapper = WRAPPERS.getOrDefault(type, type);
+        try {
+            if (wrapper != null && wrapper.isEnum()) {
+                return Enum.valueOf((Class<? extends Enum>) wrapper, value);
+            }
+            Function<String, Object> parser = PARSERS.get(wrapper);
+            if (parser == null) {
+                throw new IllegalArgumentException("Unsupported keyset column type " + type);
+            }
+            return parser.apply(value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor value " + value + " for " + type, e);
+        }
+    }
+
+    private static Expression<Comparable<Object>> toExpression(BuildContext<?> context, Object value) {
+        @SuppressWarnings("unchecked")
+        Comparable<Object> comparable = (Comparable<Object>) value;
+        return context.isParameterized() ? context.parameter(comparable) :
+                context.getCriteriaBuilder().literal(comparable);
+    }
+}
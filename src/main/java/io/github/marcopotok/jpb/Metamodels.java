@@ -0,0 +1,92 @@
+package io.github.marcopotok.jpb;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+
+/**
+ * Navigation of the JPA metamodel.
+ * Every method accepts null, as returned by providers without a metamodel, and then resolves nothing.
+ */
+final class Metamodels {
+
+    private Metamodels() {
+    }
+
+    /**
+     * @return the attribute, or null if the type is null or has no such attribute
+     */
+    static Attribute<?, ?> getAttribute(ManagedType<?> type, String name) {
+        if (type == null) {
+            return null;
+        }
+        try {
+            return type.getAttribute(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the type of the attribute, or of its elements for collections, if managed; null otherwise
+     */
+    static ManagedType<?> getTargetType(Attribute<?, ?> attribute) {
+        Type<?> type = null;
+        if (attribute instanceof SingularAttribute) {
+            type = ((SingularAttribute<?, ?>) attribute).getType();
+        } else if (attribute instanceof PluralAttribute) {
+            type = ((PluralAttribute<?, ?, ?>) attribute).getElementType();
+        }
+        return type instanceof ManagedType ? (ManagedType<?>) type : null;
+    }
+
+    /**
+     * Read the value of the attribute through its java member, field or getter.
+     * Fields are read through their getter, if any, on subclasses of the declaring class, such as proxies.
+     *
+     * @return the value of the attribute of the entity
+     * @throws IllegalStateException if the member cannot be read
+     */
+    static Object getValue(Attribute<?, ?> attribute, Object entity) {
+        Member member = attribute.getJavaMember();
+        if (member instanceof Field && member.getDeclaringClass() != entity.getClass()) {
+            // a subclass may be a proxy, whose getters initialize it unlike its fields
+            Method getter = getGetter(member.getDeclaringClass(), attribute.getName());
+            member = getter != null ? getter : member;
+        }
+        try {
+            if (member instanceof Field) {
+                Field field = (Field) member;
+                field.setAccessible(true);
+                return field.get(entity);
+            }
+            if (member instanceof Method) {
+                Method method = (Method) member;
+                method.setAccessible(true);
+                return method.invoke(entity);
+            }
+        } catch (IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            throw new IllegalStateException("Cannot read attribute " + attribute.getName(), e);
+        }
+        throw new IllegalStateException("Cannot read attribute " + attribute.getName() + " without java member");
+    }
+
+    private static Method getGetter(Class<?> type, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String prefix : new String[] { "get", "is" }) {
+            try {
+                return type.getMethod(prefix + suffix);
+            } catch (NoSuchMethodException e) {
+                // try the next prefix
+            }
+        }
+        return null;
+    }
+}
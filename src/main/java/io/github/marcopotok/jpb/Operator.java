@@ -1,11 +1,80 @@
 package io.github.marcopotok.jpb;
 
+import java.util.function.UnaryOperator;
+
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
 import jakarta.persistence.criteria.Predicate;
 
 @FunctionalInterface
 interface Operator<U> {
 
-    Predicate toPredicate(U value, Expression<U> path, CriteriaBuilder criteriaBuilder);
+    Predicate toPredicate(U value, Expression<U> path, BuildContext<?> context);
+
+    /**
+     * @return true if the predicate is never satisfied by a null path
+     */
+    default boolean isNullRejecting() {
+        return false;
+    }
+
+    /**
+     * @param operator - must not be null
+     * @param <U>      class of the value
+     * @return the same operator, never satisfied by a null path
+     */
+    static <U> Operator<U> nullRejecting(Operator<U> operator) {
+        return new Operator<>() {
+            @Override
+            public Predicate toPredicate(U value, Expression<U> path, BuildContext<?> context) {
+                return operator.toPredicate(value, path, context);
+            }
+
+            @Override
+            public boolean isNullRejecting() {
+                return true;
+            }
+        };
+    }
+
+    /**
+     * @param mapper   - must not be null, converting non null values
+     * @param operator - must not be null
+     * @param <U>      class of the value
+     * @return the operator applying {@code operator} to the converted value, rejecting null paths as it does
+     */
+    static <U> Operator<U> mapping(UnaryOperator<U> mapper, Operator<U> operator) {
+        return new Operator<>() {
+            @Override
+            public Predicate toPredicate(U value, Expression<U> path, BuildContext<?> context) {
+                return operator.toPredicate(mapper.apply(value), path, context);
+            }
+
+            @Override
+            public boolean isNullRejecting() {
+                return operator.isNullRejecting();
+            }
+        };
+    }
+
+    /**
+     * Create an operator emitting the value either as literal or, if the build is parameterized, as parameter
+     *
+     * @param literal       - must not be null
+     * @param parameterized - must not be null
+     * @param <U>           class of the value
+     * @return the operator
+     */
+    static <U> Operator<U> of(Restriction<U, U> literal, Restriction<ParameterExpression<U>, U> parameterized) {
+        return (value, path, context) -> context.isParameterized() ?
+                parameterized.toPredicate(context.parameter(value), path, context.getCriteriaBuilder()) :
+                literal.toPredicate(value, path, context.getCriteriaBuilder());
+    }
+
+    @FunctionalInterface
+    interface Restriction<V, U> {
+
+        Predicate toPredicate(V value, Expression<U> path, CriteriaBuilder criteriaBuilder);
+    }
 }
@@ -1,15 +1,62 @@
 package io.github.marcopotok.jpb;
 
 import java.util.Collection;
+import java.util.Locale;
 
 class Operators {
-    static final Operator<Object> EQUALS = (value, path, cb) -> cb.equal(path, value);
-    static final Operator<String> EQUALS_UPPER_CASE = (value, path, cb) -> cb.equal(cb.upper(path), value);
-    static final Operator<Object> NOT_EQUALS = (value, path, cb) -> cb.notEqual(path, value);
-    static final Operator<String> NOT_EQUALS_UPPER_CASE = (value, path, cb) -> cb.notEqual(cb.upper(path), value);
-    static final Operator<Collection<?>> IN = (values, path, cb) -> path.in(values);
-    static final Operator<Collection<?>> NOT_IN = (values, path, cb) -> path.in(values).not();
-    static final Operator<?> IS_NULL = (values, path, cb) -> path.isNull();
-    static final Operator<?> NOT_NULL = (values, path, cb) -> path.isNotNull();
-    static final Operator<String> LIKE_UPPER_CASE = (value, path, cb) -> cb.like(cb.upper(path), value);
+    private static final String WILDCARD_REQUEST = "\\*";
+    static final String WILDCARD_DB = "%";
+    static final Operator<Object> EQUALS = Operator.nullRejecting(Operator.of(
+            (value, path, cb) -> cb.equal(path, value),
+            (parameter, path, cb) -> cb.equal(path, parameter)));
+    static final Operator<String> EQUALS_UPPER_CASE = Operator.nullRejecting(Operator.of(
+            (value, path, cb) -> cb.equal(cb.upper(path), value),
+            (parameter, path, cb) -> cb.equal(cb.upper(path), parameter)));
+    static final Operator<Object> NOT_EQUALS = Operator.of((value, path, cb) -> cb.notEqual(path, value),
+            (parameter, path, cb) -> cb.notEqual(path, parameter));
+    static final Operator<String> NOT_EQUALS_UPPER_CASE = Operator.of(
+            (value, path, cb) -> cb.notEqual(cb.upper(path), value),
+            (parameter, path, cb) -> cb.notEqual(cb.upper(path), parameter));
+    static final Operator<Collection<?>> IN = Operator.nullRejecting(
+            (values, path, context) -> context.in(path, values));
+    static final Operator<Collection<?>> NOT_IN = (values, path, context) -> context.notIn(path, values);
+    static final Operator<IntegralValues> IN_RANGES = Operator.nullRejecting(
+            (values, path, context) -> context.in(path, values));
+    static final Operator<IntegralValues> NOT_IN_RANGES = (values, path, context) -> context.notIn(path, values);
+    static final Operator<?> IS_NULL = (values, path, context) -> path.isNull();
+    static final Operator<?> NOT_NULL = (values, path, context) -> path.isNotNull();
+    static final Operator<String> LIKE_UPPER_CASE = Operator.nullRejecting(Operator.of(
+            (value, path, cb) -> cb.like(cb.upper(path), value),
+            (parameter, path, cb) -> cb.like(cb.upper(path), parameter)));
+    static final Operator<String> EQUALS_IGNORE_CASE = Operator.mapping(Operators::toUpperCase, EQUALS_UPPER_CASE);
+    static final Operator<String> NOT_EQUALS_IGNORE_CASE = Operator.mapping(Operators::toUpperCase,
+            NOT_EQUALS_UPPER_CASE);
+    static final Operator<String> LIKE_IGNORE_CASE = Operator.mapping(
+            value -> toUpperCase(value.replaceAll(WILDCARD_REQUEST, WILDCARD_DB)), LIKE_UPPER_CASE);
+    static final Operator<String> STARTING_WITH = Operator.mapping(value -> toUpperCase(value) + WILDCARD_DB,
+            LIKE_UPPER_CASE);
+
+    static <U extends Comparable<? super U>> Operator<U> greaterThan() {
+        return Operator.nullRejecting(Operator.of((value, path, cb) -> cb.greaterThan(path, value),
+                (parameter, path, cb) -> cb.greaterThan(path, parameter)));
+    }
+
+    static <U extends Comparable<? super U>> Operator<U> greaterThanOrEqualTo() {
+        return Operator.nullRejecting(Operator.of((value, path, cb) -> cb.greaterThanOrEqualTo(path, value),
+                (parameter, path, cb) -> cb.greaterThanOrEqualTo(path, parameter)));
+    }
+
+    static <U extends Comparable<? super U>> Operator<U> lessThan() {
+        return Operator.nullRejecting(Operator.of((value, path, cb) -> cb.lessThan(path, value),
+                (parameter, path, cb) -> cb.lessThan(path, parameter)));
+    }
+
+    static <U extends Comparable<? super U>> Operator<U> lessThanOrEqualTo() {
+        return Operator.nullRejecting(Operator.of((value, path, cb) -> cb.lessThanOrEqualTo(path, value),
+                (parameter, path, cb) -> cb.lessThanOrEqualTo(path, parameter)));
+    }
+
+    private static String toUpperCase(String value) {
+        return value.toUpperCase(Locale.ROOT);
+    }
 }
@@ -0,0 +1,51 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import jakarta.persistence.Parameter;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.ParameterExpression;
+
+/**
+ * Values of the parameters created by a parameterized build, to be bound on the query before its execution.
+ *
+ * @see PredicateBuilderOptions.Builder#withParameterizedValues()
+ * @see PredicateBuilder#build(jakarta.persistence.criteria.Root, jakarta.persistence.criteria.CriteriaQuery,
+ * CriteriaBuilder, ParameterBindings)
+ */
+public final class ParameterBindings {
+
+    private final Map<Parameter<?>, Object> values = new LinkedHashMap<>();
+
+    /**
+     * @return the values by parameter, in order of creation
+     */
+    public Map<Parameter<?>, Object> getValues() {
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * Bind the values to the {@code query}
+     *
+     * @param query - must not be null
+     * @param <Q>   class of the query
+     * @return the query
+     */
+    @SuppressWarnings("unchecked")
+    public <Q extends Query> Q applyTo(Q query) {
+        values.forEach((parameter, value) -> query.setParameter((Parameter<Object>) parameter, value));
+        return query;
+    }
+
+    <U> ParameterExpression<U> bind(CriteriaBuilder criteriaBuilder, U value) {
+        @SuppressWarnings("unchecked")
+        Class<U> parameterClass = (Class<U>) (value instanceof Collection ? Collection.class : value.getClass());
+        ParameterExpression<U> parameter = criteriaBuilder.parameter(parameterClass);
+        values.put(parameter, value);
+        return parameter;
+    }
+}
@@ -0,0 +1,219 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Read all the entities matching a {@link PredicateBuilder} in parallel: the range of the ids of the matching
+ * entities, found with a min/max query, is split in partitions, each one streamed in chunks by a task of the
+ * {@link ExecutorService} with its own {@link EntityManager}.
+ * <p>
+ * The entity must have a single id of type {@link Long}, {@link Integer} or {@link Short}. Partitions are split
+ * evenly over the range of the ids, so they are balanced only as much as the ids are dense.
+ *
+ * @param <T> class of the entity
+ */
+public final class PartitionedScan<T> {
+
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final Class<T> entityClass;
+    private final ExecutorService executorService;
+
+    /**
+     * @param entityManagerFactory - must not be null
+     * @param entityClass          - must not be null
+     * @param executorService      - must not be null, running the partitions
+     */
+    public PartitionedScan(EntityManagerFactory entityManagerFactory, Class<T> entityClass,
+            ExecutorService executorService) {
+        this.entityManagerFactory = Objects.requireNonNull(entityManagerFactory,
+                "Entity manager factory must not be null");
+        this.entityClass = Objects.requireNonNull(entityClass, "Entity class must not be null");
+        this.executorService = Objects.requireNonNull(executorService, "Executor service must not be null");
+    }
+
+    /**
+     * @param entityManagerFactory - must not be null
+     * @param entityClass          - must not be null
+     * @param executorService      - must not be null, running the partitions
+     * @return the scan
+     */
+    public static <T> PartitionedScan<T> of(EntityManagerFactory entityManagerFactory, Class<T> entityClass,
+            ExecutorService executorService) {
+        return new PartitionedScan<>(entityManagerFactory, entityClass, executorService);
+    }
+
+    /**
+     * Scan the entities in chunks of {@value #DEFAULT_CHUNK_SIZE}
+     *
+     * @see #scan(PredicateBuilder, int, int, Consumer)
+     */
+    public void scan(PredicateBuilder<T> builder, int partitions, Consumer<? super T> consumer) {
+        scan(builder, partitions, DEFAULT_CHUNK_SIZE, consumer);
+    }
+
+    /**
+     * Pass all the entities matching the {@code builder} to the {@code consumer}, reading {@code partitions} ranges
+     * of ids in parallel. The consumer is called by one partition at a time, in no particular order, and the
+     * entities are detached once their chunk is read.
+     * Returns when all the partitions are read; if one fails, the others are stopped and its exception is thrown,
+     * after which the consumer is no longer called.
+     *
+     * @param builder    - must not be null, it is not changed
+     * @param partitions - must be positive
+     * @param chunkSize  - must be positive
+     * @param consumer   - must not be null
+     * @see QueryExecutor#stream(PredicateBuilder, int)
+     */
+    public void scan(PredicateBuilder<T> builder, int partitions, int chunkSize, Consumer<? super T> consumer) {
+        Objects.requireNonNull(consumer, "Consumer must not be null");
+        if (partitions <= 0) {
+            throw new IllegalArgumentException("Partitions must be positive");
+        }
+        EntityType<T> type = entityManagerFactory.getMetamodel().entity(entityClass);
+        if (!type.hasSingleIdAttribute()) {
+            throw new IllegalArgumentException("Entity " + entityClass.getName() + " must have a single id");
+        }
+        String idName = type.getId(type.getIdType().getJavaType()).getName();
+        LongFunction<Comparable<?>> idOf = getIdFactory(type.getIdType().getJavaType());
+        long[] bounds = findIdBounds(builder, idName);
+        if (bounds == null) {
+            return;
+        }
+        long step = Math.subtractExact(bounds[1], bounds[0]) / partitions + 1;
+        CompletionService<Void> completionService = new ExecutorCompletionService<>(executorService);
+        List<Future<Void>> futures = new ArrayList<>();
+        AtomicBoolean isStopped = new AtomicBoolean();
+        long from = bounds[0];
+        long to;
+        do {
+            to = bounds[1] - from < step ? bounds[1] : from + step - 1;
+            PredicateBuilder<T> partition = withIdRange(builder.copy(), idName, idOf.apply(from), idOf.apply(to));
+            futures.add(completionService.submit(() -> read(partition, chunkSize, consumer, isStopped), null));
+            from = to + 1;
+        } while (to != bounds[1]);
+        try {
+            await(completionService, futures);
+        } finally {
+            synchronized (consumer) {
+                isStopped.set(true);
+            }
+        }
+    }
+
+    /**
+     * Read the partition until it ends or the scan is stopped, checked before each chunk and each consumer call as
+     * the consumer may ignore interrupts
+     */
+    private void read(PredicateBuilder<T> partition, int chunkSize, Consumer<? super T> consumer,
+            AtomicBoolean isStopped) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            Iterator<T> entities = QueryExecutor.of(entityManager, entityClass).stream(partition, chunkSize).iterator();
+            while (!isStopped.get() && !Thread.currentThread().isInterrupted() && entities.hasNext()) {
+                T entity = entities.next();
+                synchronized (consumer) {
+                    if (isStopped.get()) {
+                        return;
+                    }
+                    try {
+                        consumer.accept(entity);
+                    } catch (RuntimeException | Error e) {
+                        isStopped.set(true);
+                        throw e;
+                    }
+                }
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    /**
+     * @return the min and max id of the entities matching the builder, or null if there is none
+     */
+    private long[] findIdBounds(PredicateBuilder<T> builder, String idName) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+            Root<T> root = query.from(entityClass);
+            Path<Number> id = root.get(idName);
+            ParameterBindings parameterBindings = new ParameterBindings();
+            query.multiselect(criteriaBuilder.min(id), criteriaBuilder.max(id))
+                    .where(builder.buildFilter(root, query, criteriaBuilder, parameterBindings));
+            Tuple bounds = parameterBindings.applyTo(entityManager.createQuery(query)).getSingleResult();
+            if (bounds.get(0) == null) {
+                return null;
+            }
+            return new long[] { ((Number) bounds.get(0)).longValue(), ((Number) bounds.get(1)).longValue() };
+        } finally {
+            entityManager.close();
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static <T> PredicateBuilder<T> withIdRange(PredicateBuilder<T> builder, String idName, Comparable from,
+            Comparable to) {
+        return builder.withPropertyAfterInclusive(idName, from).withPropertyBeforeInclusive(idName, to);
+    }
+
+    private static LongFunction<Comparable<?>> getIdFactory(Class<?> idType) {
+        if (idType == Long.class || idType == long.class) {
+            return Long::valueOf;
+        }
+        if (idType == Integer.class || idType == int.class) {
+            return value -> (int) value;
+        }
+        if (idType == Short.class || idType == short.class) {
+            return value -> (short) value;
+        }
+        throw new IllegalArgumentException("Unsupported id type " + idType.getName() + " for partitions");
+    }
+
+    /**
+     * Wait for the partitions in order of completion, so that the first failure cancels the others
+     */
+    private static void await(CompletionService<Void> completionService, List<Future<Void>> futures) {
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                completionService.take().get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scanning partitions", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+}
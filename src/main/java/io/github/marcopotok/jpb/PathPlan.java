@@ -0,0 +1,130 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+
+/**
+ * Resolution of a property path on the metamodel of its root: how many segments must be joined, the following ones
+ * being navigated with {@code get}. Plans are cached per entity class and path.
+ * Without a metamodel every segment is joined.
+ */
+final class PathPlan {
+
+    private static final ClassValue<Map<String, PathPlan>> PLANS = new ClassValue<>() {
+        @Override
+        protected Map<String, PathPlan> computeValue(Class<?> type) {
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    private final PropertyPath propertyPath;
+    private final int joinDepth;
+    private final int restrictedJoinDepth;
+    private final int pluralDepth;
+
+    private PathPlan(PropertyPath propertyPath, int joinDepth, int restrictedJoinDepth, int pluralDepth) {
+        this.propertyPath = propertyPath;
+        this.joinDepth = joinDepth;
+        this.restrictedJoinDepth = restrictedJoinDepth;
+        this.pluralDepth = pluralDepth;
+    }
+
+    /**
+     * @param model model of the root, can be null
+     */
+    static PathPlan of(ManagedType<?> model, String path) {
+        if (model == null) {
+            return create(null, PropertyPath.parse(path));
+        }
+        return PLANS.get(model.getJavaType()).computeIfAbsent(path, key -> create(model, PropertyPath.parse(key)));
+    }
+
+    /**
+     * @param model model of the root, can be null
+     */
+    static PathPlan of(ManagedType<?> model, PropertyPath propertyPath) {
+        if (model == null) {
+            return create(null, propertyPath);
+        }
+        return PLANS.get(model.getJavaType())
+                .computeIfAbsent(propertyPath.toString(), key -> create(model, propertyPath));
+    }
+
+    /**
+     * Only associations and collections are joined: embeddables after the last of them are navigated with
+     * {@code get}. A path ending in the identifier of a many-to-one association reads the foreign key column of the
+     * owner of the association, so the association itself is not joined either, unless the join is restricted.
+     * Other to-one associations are always joined because the metamodel does not tell which side owns the foreign
+     * key.
+     */
+    private static PathPlan create(ManagedType<?> model, PropertyPath propertyPath) {
+        int depth = propertyPath.getDepth();
+        if (model == null) {
+            return new PathPlan(propertyPath, depth, depth, 0);
+        }
+        int joinDepth = 0;
+        int pluralDepth = 0;
+        Attribute<?, ?> lastJoined = null;
+        ManagedType<?> type = model;
+        for (int i = 0; i < depth; i++) {
+            Attribute<?, ?> attribute = Metamodels.getAttribute(type, propertyPath.getAttribute(i));
+            if (attribute == null) {
+                return new PathPlan(propertyPath, depth, depth, 0);
+            }
+            if (attribute.isCollection() && pluralDepth == 0) {
+                pluralDepth = i + 1;
+            }
+            if (attribute.getPersistentAttributeType() != Attribute.PersistentAttributeType.EMBEDDED) {
+                joinDepth = i + 1;
+                lastJoined = attribute;
+            }
+            type = Metamodels.getTargetType(attribute);
+        }
+        boolean isForeignKeyIdentifier = joinDepth == depth && lastJoined != null
+                && lastJoined.getPersistentAttributeType() == Attribute.PersistentAttributeType.MANY_TO_ONE
+                && isIdentifier(Metamodels.getAttribute(type, propertyPath.getLeaf()));
+        return new PathPlan(propertyPath, isForeignKeyIdentifier ? joinDepth - 1 : joinDepth, joinDepth, pluralDepth);
+    }
+
+    private static boolean isIdentifier(Attribute<?, ?> attribute) {
+        return attribute instanceof SingularAttribute && ((SingularAttribute<?, ?>) attribute).isId();
+    }
+
+    PropertyPath getPropertyPath() {
+        return propertyPath;
+    }
+
+    /**
+     * @param isRestricted true if the last join has restrictions
+     * @return the number of leading segments to join
+     */
+    int getJoinDepth(boolean isRestricted) {
+        return isRestricted ? restrictedJoinDepth : joinDepth;
+    }
+
+    /**
+     * @return the number of leading segments up to the first collection, or zero if the path has no collection or
+     * no metamodel
+     */
+    int getPluralDepth() {
+        return pluralDepth;
+    }
+
+    /**
+     * @param from      the relation reached after joining the first {@code joinDepth} segments
+     * @param joinDepth - as returned by {@link #getJoinDepth(boolean)}
+     * @return the path of the property, navigating the remaining segments with {@code get}
+     */
+    <U> Path<U> getPath(Path<?> from, int joinDepth) {
+        Path<?> path = from;
+        for (int i = joinDepth; i < propertyPath.getDepth(); i++) {
+            path = path.get(propertyPath.getAttribute(i));
+        }
+        return path.get(propertyPath.getLeaf());
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Objects;
+
+/**
+ * Named value bound at build time, used to declare a predicate once and evaluate it with different values.
+ *
+ * @param <U> type of the bound value
+ * @see PredicateBuilder#compile()
+ * @see QueryTemplate
+ */
+public final class Placeholder<U> {
+
+    private final String name;
+
+    private Placeholder(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Create a placeholder
+     *
+     * @param name - must not be null
+     * @param <U>  type of the bound value
+     * @return the placeholder
+     */
+    public static <U> Placeholder<U> named(String name) {
+        Objects.requireNonNull(name, "Placeholder name cannot be null");
+        return new Placeholder<>(name);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return name.equals(((Placeholder<?>) o).name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return ":" + name;
+    }
+}
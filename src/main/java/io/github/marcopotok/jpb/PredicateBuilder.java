@@ -3,36 +3,42 @@ package io.github.marcopotok.jpb;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.LinkedList;
-import java.util.Locale;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import jakarta.persistence.criteria.CommonAbstractCriteria;
 import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
 import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.From;
-import jakarta.persistence.criteria.Join;
 import jakarta.persistence.criteria.JoinType;
 import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.PluralJoin;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import jakarta.persistence.criteria.Subquery;
+import jakarta.persistence.metamodel.EntityType;
 
 public class PredicateBuilder<T> {
 
-    private static final String WILDCARD_REQUEST = "\\*";
-    private static final String WILDCARD_DB = "%";
 
-    private static final PredicateContext<?> DISJUNCTION = (root, query, cb) -> cb.disjunction();
-    private static final PredicateContext<?> CONJUNCTION = (root, query, cb) -> cb.conjunction();
+    private static final PredicateContext<?> DISJUNCTION = PredicateContext.onRoot(
+            context -> context.getCriteriaBuilder().disjunction());
 
     private final PredicateRepository<T> predicates = new PredicateRepository<>();
-    private final Map<String, Join<?, T>> joinCache = new HashMap<>();
-    private final Collection<String> prefetches = new LinkedList<>();
+    private FetchTree prefetches = FetchTree.empty();
+    private boolean isRootSelected = true;
+    private final Map<String, JoinType> joinTypes = new HashMap<>();
+    private final Set<String> semiJoins = new HashSet<>();
+    private final PredicateBuilderOptions options;
     private final PrefetchEngine prefetchEngine;
-    private final boolean isUniqueJoins;
 
     /**
      * Initialize a {@link PredicateBuilder} with default prefetch engine
@@ -48,8 +54,8 @@ public class PredicateBuilder<T> {
      */
     public PredicateBuilder(PredicateBuilderOptions options) {
         Objects.requireNonNull(options, "Options must not be null");
+        this.options = options;
         prefetchEngine = options.getPrefetchEngine();
-        isUniqueJoins = options.isJoinCacheIsEnabled();
     }
 
     /**
@@ -77,11 +83,180 @@ public class PredicateBuilder<T> {
      * @return the predicate created
      */
     public Predicate build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
-        prefetches.forEach(prefetch -> prefetchEngine.prefetch(prefetch, root, query));
-        return predicates.stream()
-                .map(predicateContext -> predicateContext.toPredicate(root, query, criteriaBuilder))
-                .reduce(criteriaBuilder::and)
-                .orElse(conjunction().toPredicate(root, query, criteriaBuilder));
+        return build(root, query, criteriaBuilder, null);
+    }
+
+    /**
+     * Build the predicate collecting the query parameters in {@code parameterBindings}, to be applied on the query
+     * before its execution. Values are emitted as parameters only if enabled by {@link PredicateBuilderOptions}.
+     *
+     * @param root              - must not be null
+     * @param query             - must not be null
+     * @param criteriaBuilder   - must not be null
+     * @param parameterBindings - can be null, in which case values are emitted as literals
+     * @return the predicate created
+     * @see PredicateBuilderOptions.Builder#withParameterizedValues()
+     */
+    public Predicate build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        prefetchEngine.prefetch(getPrefetches(), root, query);
+        return new BuildContext<>(root, query, criteriaBuilder, options, joinTypes, semiJoins, Map.of(),
+                parameterBindings).toPredicate(predicates.toList());
+    }
+
+    /**
+     * Complete the count query of the entities matching the predicates. Only the joins needed by the predicates are
+     * created, without fetches, and the distinct, ordering, grouping and projections of the builder are ignored.
+     * Entities are counted with {@code count(distinct)} only if a collection is joined, as only then their rows can
+     * be multiplied.
+     *
+     * @param root            - must not be null
+     * @param query           - must not be null
+     * @param criteriaBuilder - must not be null
+     * @return the query
+     */
+    public CriteriaQuery<Long> buildCount(Root<T> root, CriteriaQuery<Long> query, CriteriaBuilder criteriaBuilder) {
+        return buildCount(root, query, criteriaBuilder, null);
+    }
+
+    /**
+     * Complete the count query of the entities matching the predicates, collecting the query parameters in
+     * {@code parameterBindings}.
+     *
+     * @param root              - must not be null
+     * @param query             - must not be null
+     * @param criteriaBuilder   - must not be null
+     * @param parameterBindings - can be null, in which case values are emitted as literals
+     * @return the query
+     * @see #buildCount(Root, CriteriaQuery, CriteriaBuilder)
+     */
+    public CriteriaQuery<Long> buildCount(Root<T> root, CriteriaQuery<Long> query, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        Predicate predicate = buildFilter(root, query, criteriaBuilder, parameterBindings);
+        Expression<Long> count = hasPluralJoin(root) ? criteriaBuilder.countDistinct(root) : criteriaBuilder.count(root);
+        return query.select(count).where(predicate).distinct(false).orderBy(List.of());
+    }
+
+    /**
+     * Build only the filtering predicate: prefetches are ignored, as well as distinct, ordering, grouping and
+     * projections, which are applied to a discarded query.
+     */
+    Predicate buildFilter(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        return new BuildContext<>(root, criteriaBuilder.createQuery(), query, criteriaBuilder, options, joinTypes,
+                semiJoins, Map.of(), parameterBindings).toPredicate(predicates.toList());
+    }
+
+    /**
+     * Build the predicate of a bulk update
+     *
+     * @param root            - must not be null
+     * @param update          - must not be null
+     * @param criteriaBuilder - must not be null
+     * @return the predicate created
+     * @see #buildUpdate(Root, CriteriaUpdate, CriteriaBuilder, ParameterBindings)
+     */
+    public Predicate buildUpdate(Root<T> root, CriteriaUpdate<T> update, CriteriaBuilder criteriaBuilder) {
+        return buildUpdate(root, update, criteriaBuilder, null);
+    }
+
+    /**
+     * Build the predicate of a bulk update. Bulk statements cannot join, so if the predicates need joins the
+     * entities are restricted by id to a subquery holding the joins. Prefetches are ignored, as well as distinct,
+     * ordering, grouping and projections.
+     *
+     * @param root              - must not be null
+     * @param update            - must not be null
+     * @param criteriaBuilder   - must not be null
+     * @param parameterBindings - can be null, in which case values are emitted as literals
+     * @return the predicate created
+     * @throws IllegalArgumentException if joins are needed and the entity has not a single id
+     */
+    public Predicate buildUpdate(Root<T> root, CriteriaUpdate<T> update, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        return buildBulk(root, update, criteriaBuilder, parameterBindings);
+    }
+
+    /**
+     * Build the predicate of a bulk delete
+     *
+     * @param root            - must not be null
+     * @param delete          - must not be null
+     * @param criteriaBuilder - must not be null
+     * @return the predicate created
+     * @see #buildUpdate(Root, CriteriaUpdate, CriteriaBuilder, ParameterBindings)
+     */
+    public Predicate buildDelete(Root<T> root, CriteriaDelete<T> delete, CriteriaBuilder criteriaBuilder) {
+        return buildDelete(root, delete, criteriaBuilder, null);
+    }
+
+    /**
+     * Build the predicate of a bulk delete, restricting the entities by id to a subquery if joins are needed
+     *
+     * @param root              - must not be null
+     * @param delete            - must not be null
+     * @param criteriaBuilder   - must not be null
+     * @param parameterBindings - can be null, in which case values are emitted as literals
+     * @return the predicate created
+     * @throws IllegalArgumentException if joins are needed and the entity has not a single id
+     * @see #buildUpdate(Root, CriteriaUpdate, CriteriaBuilder, ParameterBindings)
+     */
+    public Predicate buildDelete(Root<T> root, CriteriaDelete<T> delete, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        return buildBulk(root, delete, criteriaBuilder, parameterBindings);
+    }
+
+    private Predicate buildBulk(Root<T> root, CommonAbstractCriteria statement, CriteriaBuilder criteriaBuilder,
+            ParameterBindings parameterBindings) {
+        CriteriaQuery<?> ignoredQuery = criteriaBuilder.createQuery();
+        List<PredicateContext<T>> predicateContexts = predicates.toList();
+        BuildContext<T> context = new BuildContext<>(root, ignoredQuery, statement, criteriaBuilder, options,
+                joinTypes, semiJoins, Map.of(), parameterBindings);
+        if (!context.isJoining(predicateContexts)) {
+            return context.toPredicate(predicateContexts);
+        }
+        EntityType<T> type = root.getModel();
+        if (!type.hasSingleIdAttribute()) {
+            throw new IllegalArgumentException("Bulk statements on joined paths need an entity with a single id");
+        }
+        String idName = type.getId(type.getIdType().getJavaType()).getName();
+        Subquery<?> ids = statement.subquery(type.getIdType().getJavaType());
+        Root<T> idRoot = ids.from(type);
+        Predicate predicate = new BuildContext<>(idRoot, ignoredQuery, ids, criteriaBuilder, options, joinTypes,
+                semiJoins, Map.of(), parameterBindings).toPredicate(predicateContexts);
+        return root.get(idName).in(selectIds(ids, idRoot.get(idName)).where(predicate));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <I> Subquery<I> selectIds(Subquery<I> ids, Path<?> id) {
+        return ids.select((Path<I>) id);
+    }
+
+    private static boolean hasPluralJoin(From<?, ?> from) {
+        return from.getJoins().stream().anyMatch(join -> join instanceof PluralJoin || hasPluralJoin(join));
+    }
+
+    /**
+     * @return the prefetches, or none if the builder groups or projects the query, selecting something else than
+     * the root: prefetches are applied before the predicates, so the engine cannot see that selection
+     */
+    FetchTree getPrefetches() {
+        return isRootSelected ? prefetches : FetchTree.empty();
+    }
+
+    PrefetchEngine getPrefetchEngine() {
+        return prefetchEngine;
+    }
+
+    /**
+     * Compile the current predicates into an immutable {@link QueryTemplate}.
+     * Later changes to this builder do not affect the template.
+     *
+     * @return the template
+     */
+    public QueryTemplate<T> compile() {
+        return new QueryTemplate<>(predicates.toList(), getPrefetches(), Map.copyOf(joinTypes),
+                Set.copyOf(semiJoins), options);
     }
 
     /**
@@ -93,7 +268,10 @@ public class PredicateBuilder<T> {
     public PredicateBuilder<T> and(PredicateBuilder<T> other) {
         if (other != null) {
             other.predicates.stream().forEach(this.predicates::add);
-            this.prefetches.addAll(other.prefetches);
+            this.prefetches = this.prefetches.merge(other.prefetches);
+            this.isRootSelected &= other.isRootSelected;
+            this.joinTypes.putAll(other.joinTypes);
+            this.semiJoins.addAll(other.semiJoins);
         }
         return this;
     }
@@ -113,10 +291,29 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> distinct() {
-        predicates.add((root, criteriaQuery, criteriaBuilder) -> {
-            criteriaQuery.distinct(true);
-            return criteriaBuilder.conjunction();
-        });
+        predicates.add(PredicateContext.onRoot(context -> {
+            context.getQuery().distinct(true);
+            return null;
+        }));
+        return this;
+    }
+
+    /**
+     * Order the query by the {@code columns} and restrict it to the entities after the {@code cursor}, with the
+     * expanded comparison {@code a > x or (a = x and b > y)}. Pages are read by keyset instead of offset, so their
+     * cost does not grow with their depth. The cursor of the next page is given by
+     * {@link QueryExecutor#cursorOf(Object, String...)} for the last entity of a page.
+     *
+     * @param cursor  - can be null for the first page
+     * @param columns dotted paths of the properties, ascending unless prefixed by {@code -}. The last one must be
+     *                unique, e.g. the id, and the values must not be null.
+     * @return the current builder
+     * @throws IllegalArgumentException if the cursor is not valid for the columns, at build time
+     * @see QueryExecutor#findSliceAfter(PredicateBuilder, String, int, String...)
+     */
+    public PredicateBuilder<T> after(String cursor, String... columns) {
+        Keyset keyset = Keyset.of(columns);
+        predicates.add(context -> keyset.toPredicate(context, cursor));
         return this;
     }
 
@@ -127,7 +324,36 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> prefetch(String attributes) {
-        this.prefetches.add(attributes);
+        this.prefetches = this.prefetches.merge(FetchTree.of(attributes));
+        return this;
+    }
+
+    /**
+     * Join the relation {@code path} with {@code joinType}, overriding the automatic choice between left and inner
+     * join
+     *
+     * @param path     dotted path of the relation, as in the property names - must not be null
+     * @param joinType - must not be null
+     * @return the current builder
+     * @see PredicateBuilderOptions.Builder#withInnerJoinPromotion()
+     */
+    public PredicateBuilder<T> withJoinType(String path, JoinType joinType) {
+        Objects.requireNonNull(joinType, "Join type must not be null");
+        joinTypes.put(PropertyPath.toJoinKey(path), joinType);
+        return this;
+    }
+
+    /**
+     * Filter on the properties under the relation {@code path} through a correlated EXISTS subquery instead of a
+     * join, so that a to-many relation does not multiply the rows of the root. Predicates sharing the relation are
+     * evaluated on the same element when the join cache is enabled.
+     *
+     * @param path dotted path of the relation, as in the property names - must not be null
+     * @return the current builder
+     * @see PredicateBuilderOptions.Builder#withPluralSemiJoins()
+     */
+    public PredicateBuilder<T> withSemiJoin(String path) {
+        semiJoins.add(PropertyPath.toJoinKey(path));
         return this;
     }
 
@@ -154,6 +380,20 @@ public class PredicateBuilder<T> {
         return this;
     }
 
+    /**
+     * Add a predicate on where clause for entity's {@code name} is equal to the value bound to {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed
+     * @return the current builder
+     * @see #compile()
+     */
+    public <U> PredicateBuilder<T> withProperty(String name, Placeholder<U> placeholder) {
+        addPredicateContextIfBound(name, Operators.EQUALS, placeholder);
+        return this;
+    }
+
     /**
      * Add a predicate on where clause for entity's {@code name} is equal to {@code value}.
      * If {@code value} is null, a disjunction predicate will be added.
@@ -179,8 +419,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <U extends String> PredicateBuilder<T> withPropertyIgnoreCase(String name, U value) {
-        addPredicateContextIfHasValue(name, Operators.EQUALS_UPPER_CASE,
-                value != null ? value.toUpperCase(Locale.ROOT) : null);
+        addPredicateContextIfHasValue(name, Operators.EQUALS_IGNORE_CASE, value);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is equal ignore case to the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyIgnoreCaseBoundTo(String name, Placeholder<String> placeholder) {
+        addPredicateContextIfBound(name, Operators.EQUALS_IGNORE_CASE, placeholder);
         return this;
     }
 
@@ -209,6 +463,21 @@ public class PredicateBuilder<T> {
         return this;
     }
 
+    /**
+     * Add a predicate on where clause for entity's {@code name} is not equal to the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public <U> PredicateBuilder<T> withPropertyNot(String name, Placeholder<U> placeholder) {
+        addPredicateContextIfBound(name, Operators.NOT_EQUALS, placeholder);
+        return this;
+    }
+
     /**
      * Add a predicate on where clause for entity's {@code name} is not equal ignore case to {@code value}.
      * If {@code value} is null, no predicate will be added.
@@ -218,8 +487,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <U extends String> PredicateBuilder<T> withPropertyNotIgnoreCase(String name, U value) {
-        addPredicateContextIfHasValue(name, Operators.NOT_EQUALS_UPPER_CASE,
-                value != null ? value.toUpperCase(Locale.ROOT) : null);
+        addPredicateContextIfHasValue(name, Operators.NOT_EQUALS_IGNORE_CASE, value);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is not equal ignore case to the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyNotIgnoreCaseBoundTo(String name, Placeholder<String> placeholder) {
+        addPredicateContextIfBound(name, Operators.NOT_EQUALS_IGNORE_CASE, placeholder);
         return this;
     }
 
@@ -236,6 +519,48 @@ public class PredicateBuilder<T> {
         return this;
     }
 
+    /**
+     * Add a predicate on where clause for entity's {@code name} is in the values bound to {@code placeholder}.
+     * If no values are bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder collection of values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyIn(String name, Placeholder<? extends Collection<?>> placeholder) {
+        addPredicateContextIfBound(name, Operators.IN, placeholder);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is in {@code values}.
+     * Values are sorted and deduplicated, and runs of consecutive values are collapsed in BETWEEN predicates.
+     * If {@code values} is null, no predicate will be added.
+     *
+     * @param name   name of the field of the entity to filter.
+     * @param values values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     */
+    public PredicateBuilder<T> withPropertyIn(String name, long[] values) {
+        addPredicateContextIfHasValue(name, Operators.IN_RANGES, values != null ? IntegralValues.of(values) : null);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is in {@code values}.
+     * Values are sorted and deduplicated, and runs of consecutive values are collapsed in BETWEEN predicates.
+     * If {@code values} is null, no predicate will be added.
+     *
+     * @param name   name of the field of the entity to filter.
+     * @param values values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     */
+    public PredicateBuilder<T> withPropertyIn(String name, int[] values) {
+        addPredicateContextIfHasValue(name, Operators.IN_RANGES, values != null ? IntegralValues.of(values) : null);
+        return this;
+    }
+
     /**
      * Add a predicate on where clause for entity's {@code name} is in {@code values}.
      * If {@code values} is null or empty, a disjunction predicate will be added.
@@ -265,6 +590,48 @@ public class PredicateBuilder<T> {
         return this;
     }
 
+    /**
+     * Add a predicate on where clause for entity's {@code name} is not in {@code values}.
+     * Values are sorted and deduplicated, and runs of consecutive values are collapsed in BETWEEN predicates.
+     * If {@code values} is null, no predicate will be added.
+     *
+     * @param name   name of the field of the entity to filter.
+     * @param values values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     */
+    public PredicateBuilder<T> withPropertyNotIn(String name, long[] values) {
+        addPredicateContextIfHasValue(name, Operators.NOT_IN_RANGES, values != null ? IntegralValues.of(values) : null);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is not in {@code values}.
+     * Values are sorted and deduplicated, and runs of consecutive values are collapsed in BETWEEN predicates.
+     * If {@code values} is null, no predicate will be added.
+     *
+     * @param name   name of the field of the entity to filter.
+     * @param values values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     */
+    public PredicateBuilder<T> withPropertyNotIn(String name, int[] values) {
+        addPredicateContextIfHasValue(name, Operators.NOT_IN_RANGES, values != null ? IntegralValues.of(values) : null);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's {@code name} is not in the values bound to {@code placeholder}.
+     * If no values are bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder collection of values for a where clause. If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyNotIn(String name, Placeholder<? extends Collection<?>> placeholder) {
+        addPredicateContextIfBound(name, Operators.NOT_IN, placeholder);
+        return this;
+    }
+
     /**
      * Add a predicate on where clause for entity's {@code name} is {@code null}.
      *
@@ -296,10 +663,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> withPropertyLikeIgnoreCase(String name, String value) {
-        if (value != null) {
-            addPredicateContextIfHasValue(name, Operators.LIKE_UPPER_CASE,
-                    value.replaceAll(WILDCARD_REQUEST, WILDCARD_DB).toUpperCase(Locale.ROOT));
-        }
+        addPredicateContextIfHasValue(name, Operators.LIKE_IGNORE_CASE, value);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} is like ignore case to the value bound to
+     * {@code placeholder}, where {@code *} matches any sequence of characters.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyLikeIgnoreCaseBoundTo(String name, Placeholder<String> placeholder) {
+        addPredicateContextIfBound(name, Operators.LIKE_IGNORE_CASE, placeholder);
         return this;
     }
 
@@ -312,8 +691,26 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> withPropertyStartingWith(String name, String value) {
-        String likeValue = value == null ? WILDCARD_DB : value.toUpperCase(Locale.ROOT) + WILDCARD_DB;
-        addPredicateContextIfHasValue(name, Operators.LIKE_UPPER_CASE, likeValue);
+        if (value == null) {
+            addPredicateContext(name, Operators.LIKE_UPPER_CASE, Operators.WILDCARD_DB);
+        } else {
+            addPredicateContext(name, Operators.STARTING_WITH, value);
+        }
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} starts with the value bound to
+     * {@code placeholder}, ignoring case.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public PredicateBuilder<T> withPropertyStartingWithBoundTo(String name, Placeholder<String> placeholder) {
+        addPredicateContextIfBound(name, Operators.STARTING_WITH, placeholder);
         return this;
     }
 
@@ -326,7 +723,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <U extends Comparable<? super U>> PredicateBuilder<T> withPropertyAfter(String name, U from) {
-        addPredicateContextIfHasValue(name, (value, path, cb) -> cb.greaterThan(path, value), from);
+        addPredicateContextIfHasValue(name, Operators.greaterThan(), from);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} is greater than the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public <U extends Comparable<? super U>> PredicateBuilder<T> withPropertyAfter(String name, Placeholder<U> placeholder) {
+        addPredicateContextIfBound(name, Operators.greaterThan(), placeholder);
         return this;
     }
 
@@ -339,7 +751,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyAfterInclusive(String name, X from) {
-        addPredicateContextIfHasValue(name, (value, path, cb) -> cb.greaterThanOrEqualTo(path, value), from);
+        addPredicateContextIfHasValue(name, Operators.greaterThanOrEqualTo(), from);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} is greater than or equal to the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyAfterInclusive(String name, Placeholder<X> placeholder) {
+        addPredicateContextIfBound(name, Operators.greaterThanOrEqualTo(), placeholder);
         return this;
     }
 
@@ -352,7 +779,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyBefore(String name, X to) {
-        addPredicateContextIfHasValue(name, (value, path, cb) -> cb.lessThan(path, value), to);
+        addPredicateContextIfHasValue(name, Operators.lessThan(), to);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} is less than the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyBefore(String name, Placeholder<X> placeholder) {
+        addPredicateContextIfBound(name, Operators.lessThan(), placeholder);
         return this;
     }
 
@@ -365,7 +807,22 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyBeforeInclusive(String name, X to) {
-        addPredicateContextIfHasValue(name, (value, path, cb) -> cb.lessThanOrEqualTo(path, value), to);
+        addPredicateContextIfHasValue(name, Operators.lessThanOrEqualTo(), to);
+        return this;
+    }
+
+    /**
+     * Add a predicate on where clause for entity's property {@code name} is less than or equal to the value bound to
+     * {@code placeholder}.
+     * If no value is bound, no predicate will be added.
+     *
+     * @param name        name of the field of the entity to filter.
+     * @param placeholder If null, no filtering will be performed.
+     * @return the current builder
+     * @see #compile()
+     */
+    public <X extends Comparable<? super X>> PredicateBuilder<T> withPropertyBeforeInclusive(String name, Placeholder<X> placeholder) {
+        addPredicateContextIfBound(name, Operators.lessThanOrEqualTo(), placeholder);
         return this;
     }
 
@@ -379,13 +836,14 @@ public class PredicateBuilder<T> {
      */
     public <X extends Comparable<X>> PredicateBuilder<T> withPropertyMaxValue(Class<T> entityClass,
             Class<X> propertyClass, String name) {
-        predicates.add((root, query, cb) -> {
-            Subquery<X> subQuery = query.subquery(propertyClass);
+        predicates.add(PredicateContext.onRoot(context -> {
+            CriteriaBuilder cb = context.getCriteriaBuilder();
+            Subquery<X> subQuery = context.subquery(propertyClass);
             Root<T> subRoot = subQuery.from(entityClass);
             Path<X> x = subRoot.get(name);
             subQuery.select(cb.greatest(x));
-            return cb.equal(root.get(name), subQuery);
-        });
+            return cb.equal(context.getRoot().get(name), subQuery);
+        }));
         return this;
     }
 
@@ -412,8 +870,7 @@ public class PredicateBuilder<T> {
      */
     public PredicateBuilder<T> with(Clause clause) {
         if (clause != null) {
-            predicates.add((root, criteriaQuery, criteriaBuilder) -> clause.toPredicate(criteriaBuilder,
-                    (path, joinOn) -> getPropertyPath(root, path, joinOn)));
+            predicates.add(context -> toPredicate(clause, context));
         }
         return this;
     }
@@ -425,10 +882,11 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> groupBy(String... names) {
-        predicates.add((root, query, criteriaBuilder) -> {
-            query.groupBy(Arrays.stream(names).map(root::get).collect(Collectors.toList()));
-            return criteriaBuilder.conjunction();
-        });
+        isRootSelected = false;
+        predicates.add(PredicateContext.onRoot(context -> {
+            context.getQuery().groupBy(Arrays.stream(names).map(context.getRoot()::get).collect(Collectors.toList()));
+            return null;
+        }));
         return this;
     }
 
@@ -439,10 +897,12 @@ public class PredicateBuilder<T> {
      * @return the current builder
      */
     public PredicateBuilder<T> project(String... names) {
-        predicates.add((root, query, criteriaBuilder) -> {
-            query.multiselect(Arrays.stream(names).map(root::get).collect(Collectors.toList()));
-            return criteriaBuilder.conjunction();
-        });
+        isRootSelected = false;
+        predicates.add(PredicateContext.onRoot(context -> {
+            context.getQuery()
+                    .multiselect(Arrays.stream(names).map(context.getRoot()::get).collect(Collectors.toList()));
+            return null;
+        }));
         return this;
     }
 
@@ -452,43 +912,26 @@ public class PredicateBuilder<T> {
         }
     }
 
-    private <U> void addPredicateContext(String name, Operator<U> operator, U value) {
-        Objects.requireNonNull(name, "Property name cannot be null");
-        predicates.add((root, criteriaQuery, criteriaBuilder) -> {
-            Path<U> propertyPath = getPropertyPath(root, name, null);
-            return operator.toPredicate(value, propertyPath, criteriaBuilder);
-        });
-    }
-
-    private <U> Path<U> getPropertyPath(Root<T> root, String key, Function<Join<?, ?>, Predicate> joinOn) {
-        String[] split = key.split("\\.");
-        return getRelationPath(root, split, joinOn).get(split[split.length - 1]);
+    private <U> void addPredicateContextIfBound(String name, Operator<U> operator,
+            Placeholder<? extends U> placeholder) {
+        if (placeholder != null) {
+            predicates.add(PropertyPredicateContext.of(PropertyPath.parse(name), operator, placeholder));
+        }
     }
 
-    private From<?, T> getRelationPath(From<?, T> path, String[] split, Function<Join<?, ?>, Predicate> joinOn) {
-        String currentPath = "";
-        From<?, T> fromPath = path;
-        for (int i = 0; i < split.length - 1; i++) {
-            String attributeName = split[i];
-            currentPath += "." + attributeName;
-            fromPath = getPath(currentPath, fromPath, attributeName);
-        }
-        return addRestrictions(fromPath, joinOn);
+    private <U> void addPredicateContext(String name, Operator<U> operator, U value) {
+        predicates.add(PropertyPredicateContext.of(PropertyPath.parse(name), operator, value));
     }
 
-    private From<?, T> addRestrictions(From<?, T> path, Function<Join<?, ?>, Predicate> joinOn) {
-        if (path instanceof Join && joinOn != null) {
-            @SuppressWarnings("unchecked")
-            Join<?, T> join = (Join<?, T>) path;
-            return join.on(joinOn.apply(join));
-        }
-        return path;
+    private static <T> Predicate toPredicate(Clause clause, BuildContext<T> context) {
+        return clause.toPredicate(context.getCriteriaBuilder(), context::getPath);
     }
 
-    private Join<?, T> getPath(String currentPath, From<?, T> path, String attributeName) {
-        return isUniqueJoins ?
-                joinCache.computeIfAbsent(currentPath, ignored -> path.join(attributeName, JoinType.LEFT)) :
-                path.join(attributeName, JoinType.LEFT);
+    /**
+     * @return a new builder with the same options, predicates and prefetches
+     */
+    PredicateBuilder<T> copy() {
+        return new PredicateBuilder<T>(options).and(this);
     }
 
     private void disjunct() {
@@ -496,11 +939,6 @@ public class PredicateBuilder<T> {
         predicates.freeze();
     }
 
-    @SuppressWarnings("unchecked")
-    private PredicateContext<T> conjunction() {
-        return (PredicateContext<T>) CONJUNCTION;
-    }
-
     @SuppressWarnings("unchecked")
     private PredicateContext<T> disjunction() {
         return (PredicateContext<T>) DISJUNCTION;
@@ -1,13 +1,33 @@
 package io.github.marcopotok.jpb;
 
+import java.util.Collection;
+
 public class PredicateBuilderOptions {
 
     private final boolean joinCacheIsEnabled;
+    private final boolean innerJoinPromotion;
+    private final boolean pluralSemiJoin;
+    private final boolean parameterizedValues;
+    private final boolean inListPadding;
+    private final int inListChunkSize;
+    private final boolean inListRangeCompression;
     private final PrefetchEngine prefetchEngine;
 
-    private PredicateBuilderOptions(boolean joinCacheIsEnabled, PrefetchEngine prefetchEngine) {
-        this.joinCacheIsEnabled = joinCacheIsEnabled;
-        this.prefetchEngine = prefetchEngine;
+    private PredicateBuilderOptions(Builder builder) {
+        this.joinCacheIsEnabled = builder.joinCacheIsEnabled;
+        this.innerJoinPromotion = builder.innerJoinPromotion;
+        this.pluralSemiJoin = builder.pluralSemiJoin;
+        this.parameterizedValues = builder.parameterizedValues;
+        this.inListPadding = builder.inListPadding;
+        this.inListChunkSize = builder.inListChunkSize;
+        this.inListRangeCompression = builder.inListRangeCompression;
+        if (builder.prefetchEngine != null) {
+            this.prefetchEngine = builder.prefetchEngine;
+        } else {
+            this.prefetchEngine = builder.multipleCollectionPrefetches ?
+                    DefaultPrefetchEngine.SHARED_WITH_MULTIPLE_COLLECTIONS :
+                    DefaultPrefetchEngine.SHARED;
+        }
     }
 
     public static PredicateBuilderOptions createDefault() {
@@ -22,13 +42,47 @@ public class PredicateBuilderOptions {
         return joinCacheIsEnabled;
     }
 
+    public boolean isInnerJoinPromotion() {
+        return innerJoinPromotion;
+    }
+
+    public boolean isPluralSemiJoin() {
+        return pluralSemiJoin;
+    }
+
+    public boolean isParameterizedValues() {
+        return parameterizedValues;
+    }
+
+    public boolean isInListPadding() {
+        return inListPadding;
+    }
+
+    /**
+     * @return the maximum number of values of a single IN predicate, or zero if unlimited
+     */
+    public int getInListChunkSize() {
+        return inListChunkSize;
+    }
+
+    public boolean isInListRangeCompression() {
+        return inListRangeCompression;
+    }
+
     public PrefetchEngine getPrefetchEngine() {
         return prefetchEngine;
     }
 
     public static final class Builder {
         private boolean joinCacheIsEnabled = true;
-        private PrefetchEngine prefetchEngine = new DefaultPrefetchEngine();
+        private boolean innerJoinPromotion;
+        private boolean pluralSemiJoin;
+        private boolean parameterizedValues;
+        private boolean inListPadding;
+        private int inListChunkSize;
+        private boolean inListRangeCompression;
+        private boolean multipleCollectionPrefetches;
+        private PrefetchEngine prefetchEngine;
 
         private Builder() {
         }
@@ -38,13 +92,109 @@ public class PredicateBuilderOptions {
             return this;
         }
 
+        /**
+         * Inner join the relations of the properties on which a predicate rejects null values, instead of left
+         * joining them, leaving the database free to reorder the joins. The predicate of the builder must be the
+         * whole WHERE clause of the query, as the inner joins reject the rows without the relations: a disjunction
+         * with other predicates on the same root would lose the rows matching only the other predicates.
+         *
+         * @return the current builder
+         * @see PredicateBuilder#withJoinType(String, jakarta.persistence.criteria.JoinType)
+         */
+        public Builder withInnerJoinPromotion() {
+            this.innerJoinPromotion = true;
+            return this;
+        }
+
+        /**
+         * Filter on properties under a collection through a correlated EXISTS subquery instead of a join, so that
+         * the rows of the root are not multiplied and no distinct is needed. A predicate then holds if any element
+         * of the collection satisfies it. Requires the metamodel of the root to detect collections; relations with
+         * an explicit join type are still joined.
+         *
+         * @return the current builder
+         * @see PredicateBuilder#withSemiJoin(String)
+         */
+        public Builder withPluralSemiJoins() {
+            this.pluralSemiJoin = true;
+            return this;
+        }
+
+        /**
+         * Emit the values as query parameters instead of literals when the predicate is built with
+         * {@link ParameterBindings}, so that the statement does not change with the values and the query plans
+         * cached by the provider and by the database can be reused.
+         *
+         * @return the current builder
+         */
+        public Builder withParameterizedValues() {
+            this.parameterizedValues = true;
+            return this;
+        }
+
+        /**
+         * Pad the values of IN predicates up to the next power of two, repeating the last value, so that the number
+         * of distinct statements grows logarithmically with the size of the collections.
+         *
+         * @return the current builder
+         */
+        public Builder withInListPadding() {
+            this.inListPadding = true;
+            return this;
+        }
+
+        /**
+         * Split the values of IN predicates in chunks of at most {@code chunkSize} values, combined in a disjunction
+         * of IN predicates (a conjunction of NOT IN predicates for the negation), to respect the limits of the
+         * database on the number of values or parameters of a single statement.
+         * Padded IN lists never exceed the chunk size.
+         *
+         * @param chunkSize - must be positive
+         * @return the current builder
+         * @see QueryExecutor#findAllIn(PredicateBuilder, String, Collection, int)
+         */
+        public Builder withInListChunkSize(int chunkSize) {
+            if (chunkSize <= 0) {
+                throw new IllegalArgumentException("Chunk size must be positive");
+            }
+            this.inListChunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sort and deduplicate the values of IN predicates on {@link Long} or {@link Integer} values, and collapse
+         * runs of consecutive values in BETWEEN predicates combined with an IN predicate on the remaining values.
+         * Dense sets of ids result in much shorter statements, at the cost of a statement shape depending on the
+         * values.
+         *
+         * @return the current builder
+         * @see PredicateBuilder#withPropertyIn(String, long[])
+         */
+        public Builder withInListRangeCompression() {
+            this.inListRangeCompression = true;
+            return this;
+        }
+
+        /**
+         * Allow the default prefetch engine to fetch collections in separate branches in the same query, which
+         * multiplies the rows of the collections with each other. By default such prefetches are rejected, while
+         * collections nested in one another are allowed.
+         * Ignored if a custom engine is set.
+         *
+         * @return the current builder
+         */
+        public Builder withMultipleCollectionPrefetches() {
+            this.multipleCollectionPrefetches = true;
+            return this;
+        }
+
         public Builder withPrefetchEngine(PrefetchEngine prefetchEngine) {
             this.prefetchEngine = prefetchEngine;
             return this;
         }
 
         public PredicateBuilderOptions build() {
-            return new PredicateBuilderOptions(joinCacheIsEnabled, prefetchEngine);
+            return new PredicateBuilderOptions(this);
         }
     }
 }
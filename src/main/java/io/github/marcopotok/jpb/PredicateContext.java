@@ -1,12 +1,49 @@
 package io.github.marcopotok.jpb;
 
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 
 @FunctionalInterface
 interface PredicateContext<T> {
 
-    Predicate toPredicate(Root<T> root, CriteriaQuery<?> criteriaQuery, CriteriaBuilder criteriaBuilder);
+    /**
+     * @param context - must not be null
+     * @return the predicate, or null if no restriction applies
+     */
+    Predicate toPredicate(BuildContext<T> context);
+
+    /**
+     * @param context - must not be null
+     * @return the path of the property on which the predicate rejects null values, so that its relations can be
+     * inner joined, or null
+     */
+    default PropertyPath getNullRejectedPath(BuildContext<T> context) {
+        return null;
+    }
+
+    /**
+     * @param context - must not be null
+     * @return true if the predicate may join relations of the root, as assumed for opaque predicates
+     */
+    default boolean isJoining(BuildContext<T> context) {
+        return true;
+    }
+
+    /**
+     * @param predicateContext - must not be null, and must not join relations of the root
+     * @return the context, declared as not joining
+     */
+    static <T> PredicateContext<T> onRoot(PredicateContext<T> predicateContext) {
+        return new PredicateContext<>() {
+
+            @Override
+            public Predicate toPredicate(BuildContext<T> context) {
+                return predicateContext.toPredicate(context);
+            }
+
+            @Override
+            public boolean isJoining(BuildContext<T> context) {
+                return false;
+            }
+        };
+    }
 }
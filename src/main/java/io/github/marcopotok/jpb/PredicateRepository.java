@@ -1,12 +1,12 @@
 package io.github.marcopotok.jpb;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Stream;
 
 class PredicateRepository<T> {
 
-    private final List<PredicateContext<T>> predicates = new LinkedList<>();
+    private final List<PredicateContext<T>> predicates = new ArrayList<>();
     private boolean isFrozen;
 
     public void add(PredicateContext<T> context) {
@@ -20,6 +20,10 @@ class PredicateRepository<T> {
         return this.predicates.stream();
     }
 
+    public List<PredicateContext<T>> toList() {
+        return List.copyOf(this.predicates);
+    }
+
     public void set(PredicateContext<T> context) {
         if (isFrozen) {
             return;
@@ -1,5 +1,9 @@
 package io.github.marcopotok.jpb;
 
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Root;
 
@@ -13,4 +17,45 @@ public interface PrefetchEngine {
      * @param <T>           class of the root
      */
     <T> void prefetch(String attributeList, Root<T> root, CriteriaQuery<?> query);
+
+    /**
+     * Fetch the attributes of the tree, merged from all the prefetches of a builder.
+     * By default the tree is passed once as normalized specification to {@link #prefetch(String, Root, CriteriaQuery)}.
+     *
+     * @param tree  - must not be null.
+     * @param root  - must not be null.
+     * @param query - must not be null.
+     * @param <T>   class of the root
+     */
+    default <T> void prefetch(FetchTree tree, Root<T> root, CriteriaQuery<?> query) {
+        if (!tree.isEmpty()) {
+            prefetch(tree.toString(), root, query);
+        }
+    }
+
+    /**
+     * Prepare a query for the attributes of the tree, before its execution, e.g. with hints.
+     * Called by {@link QueryExecutor} only; by default the query is not changed.
+     *
+     * @param entityClass   - must not be null.
+     * @param query         - must not be null.
+     * @param tree          - must not be null.
+     * @param entityManager - must not be null, the one that created the query.
+     * @param <T>           class of the entities
+     */
+    default <T> void prepare(Class<T> entityClass, TypedQuery<T> query, FetchTree tree, EntityManager entityManager) {
+    }
+
+    /**
+     * Load the attributes of the tree for the entities found by a query, after its execution.
+     * Called by {@link QueryExecutor} only; by default nothing is loaded, as the attributes are fetched by the query.
+     *
+     * @param entityClass   - must not be null.
+     * @param entities      - must not be null.
+     * @param tree          - must not be null.
+     * @param entityManager - must not be null, the one that found the entities.
+     * @param <T>           class of the entities
+     */
+    default <T> void load(Class<T> entityClass, List<T> entities, FetchTree tree, EntityManager entityManager) {
+    }
 }
@@ -0,0 +1,82 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Objects;
+
+/**
+ * Dotted property path split once, with the join cache key of every intermediate relation precomputed.
+ */
+final class PropertyPath {
+
+    private static final char ATTRIBUTE_CHAIN_DELIMITER = '.';
+
+    private final String path;
+    private final String[] attributes;
+    private final String[] joinKeys;
+
+    private PropertyPath(String path, String[] attributes, String[] joinKeys) {
+        this.path = path;
+        this.attributes = attributes;
+        this.joinKeys = joinKeys;
+    }
+
+    static PropertyPath parse(String path) {
+        Objects.requireNonNull(path, "Property name cannot be null");
+        String[] attributes = split(path);
+        String[] joinKeys = new String[attributes.length - 1];
+        StringBuilder joinKey = new StringBuilder();
+        for (int i = 0; i < joinKeys.length; i++) {
+            joinKey.append(ATTRIBUTE_CHAIN_DELIMITER).append(attributes[i]);
+            joinKeys[i] = joinKey.toString();
+        }
+        return new PropertyPath(path, attributes, joinKeys);
+    }
+
+    /**
+     * @param relationPath dotted path of a relation - must not be null
+     * @return the join cache key of the relation
+     */
+    static String toJoinKey(String relationPath) {
+        Objects.requireNonNull(relationPath, "Relation path cannot be null");
+        return ATTRIBUTE_CHAIN_DELIMITER + relationPath;
+    }
+
+    private static String[] split(String path) {
+        int size = 1;
+        for (int i = 0; i < path.length(); i++) {
+            if (path.charAt(i) == ATTRIBUTE_CHAIN_DELIMITER) {
+                size++;
+            }
+        }
+        String[] attributes = new String[size];
+        for (int i = 0, begin = 0; i < size; i++) {
+            int end = path.indexOf(ATTRIBUTE_CHAIN_DELIMITER, begin);
+            attributes[i] = path.substring(begin, end < 0 ? path.length() : end);
+            begin = end + 1;
+        }
+        return attributes;
+    }
+
+    /**
+     * @return the number of relations to traverse before reaching the leaf attribute
+     */
+    int getDepth() {
+        return joinKeys.length;
+    }
+
+    String getAttribute(int index) {
+        return attributes[index];
+    }
+
+    String getJoinKey(int index) {
+        return joinKeys[index];
+    }
+
+    String getLeaf() {
+        return attributes[attributes.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,60 @@
+package io.github.marcopotok.jpb;
+
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Predicate of an {@link Operator} on a property, with either a fixed value or a value bound to a placeholder.
+ * No predicate applies when no value is bound to the placeholder.
+ */
+final class PropertyPredicateContext<T, U> implements PredicateContext<T> {
+
+    private final PropertyPath propertyPath;
+    private final Operator<U> operator;
+    private final U value;
+    private final Placeholder<? extends U> placeholder;
+
+    private PropertyPredicateContext(PropertyPath propertyPath, Operator<U> operator, U value,
+            Placeholder<? extends U> placeholder) {
+        this.propertyPath = propertyPath;
+        this.operator = operator;
+        this.value = value;
+        this.placeholder = placeholder;
+    }
+
+    static <T, U> PropertyPredicateContext<T, U> of(PropertyPath propertyPath, Operator<U> operator, U value) {
+        return new PropertyPredicateContext<>(propertyPath, operator, value, null);
+    }
+
+    static <T, U> PropertyPredicateContext<T, U> of(PropertyPath propertyPath, Operator<U> operator,
+            Placeholder<? extends U> placeholder) {
+        return new PropertyPredicateContext<>(propertyPath, operator, null, placeholder);
+    }
+
+    @Override
+    public Predicate toPredicate(BuildContext<T> context) {
+        if (placeholder == null) {
+            return toPredicate(value, context);
+        }
+        U boundValue = context.valueOf(placeholder);
+        return boundValue == null ? null : toPredicate(boundValue, context);
+    }
+
+    private Predicate toPredicate(U currentValue, BuildContext<T> context) {
+        return context.toPredicate(propertyPath, (Path<U> path) -> operator.toPredicate(currentValue, path, context));
+    }
+
+    @Override
+    public PropertyPath getNullRejectedPath(BuildContext<T> context) {
+        return operator.isNullRejecting() && isApplied(context) ? propertyPath : null;
+    }
+
+    @Override
+    public boolean isJoining(BuildContext<T> context) {
+        return isApplied(context) && context.isJoining(propertyPath);
+    }
+
+    private boolean isApplied(BuildContext<T> context) {
+        return placeholder == null || context.valueOf(placeholder) != null;
+    }
+}
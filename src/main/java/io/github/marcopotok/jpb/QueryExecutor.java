@@ -0,0 +1,350 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.EntityType;
+
+/**
+ * Execute the queries built by {@link PredicateBuilder} on an {@link EntityManager}.
+ *
+ * @param <T> class of the entity
+ */
+public final class QueryExecutor<T> {
+
+    /**
+     * Hint of the JDBC fetch size, as named by Hibernate
+     */
+    public static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+
+    private final EntityManager entityManager;
+    private final Class<T> entityClass;
+
+    /**
+     * @param entityManager - must not be null
+     * @param entityClass   - must not be null
+     */
+    public QueryExecutor(EntityManager entityManager, Class<T> entityClass) {
+        this.entityManager = Objects.requireNonNull(entityManager, "Entity manager must not be null");
+        this.entityClass = Objects.requireNonNull(entityClass, "Entity class must not be null");
+    }
+
+    /**
+     * @param entityManager - must not be null
+     * @param entityClass   - must not be null
+     * @return the executor
+     */
+    public static <T> QueryExecutor<T> of(EntityManager entityManager, Class<T> entityClass) {
+        return new QueryExecutor<>(entityManager, entityClass);
+    }
+
+    /**
+     * Find all the entities matching the {@code builder}
+     *
+     * @param builder - must not be null
+     * @return the entities found
+     */
+    public List<T> findAll(PredicateBuilder<T> builder) {
+        return load(builder, createQuery(builder, false).getResultList());
+    }
+
+    /**
+     * Find a slice of the entities matching the {@code builder}, fetching one entity more than the size of the slice
+     * to tell if a next slice exists instead of counting all the entities.
+     * Unless ordered by the {@code builder}, entities are ordered by id so that slices are stable.
+     * Collections should be prefetched with {@link BatchPrefetchEngine}, as providers paginate fetched collections
+     * in memory.
+     *
+     * @param builder - must not be null
+     * @param page    - must not be negative
+     * @param size    - must be positive
+     * @return the slice found
+     */
+    public Slice<T> findSlice(PredicateBuilder<T> builder, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        checkSize(size);
+        List<T> entities = createQuery(builder, true)
+                .setFirstResult(Math.toIntExact((long) page * size))
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = entities.size() > size;
+        List<T> content = new ArrayList<>(hasNext ? entities.subList(0, size) : entities);
+        return new Slice<>(load(builder, content), page, size, hasNext);
+    }
+
+    /**
+     * Find a slice of the entities matching the {@code builder} after the {@code cursor}, ordered by the
+     * {@code columns}. The cursor of the next slice is computed from the last entity of the slice.
+     *
+     * @param builder - must not be null, it is not changed
+     * @param cursor  - can be null for the first slice
+     * @param size    - must be positive
+     * @param columns - see {@link PredicateBuilder#after(String, String...)}
+     * @return the slice found
+     */
+    public Slice<T> findSliceAfter(PredicateBuilder<T> builder, String cursor, int size, String... columns) {
+        checkSize(size);
+        return findSliceAfter(builder, size, createQuery(builder.copy().after(cursor, columns), false), columns);
+    }
+
+    private Slice<T> findSliceAfter(PredicateBuilder<T> builder, int size, TypedQuery<T> query, String... columns) {
+        List<T> entities = query.setMaxResults(size + 1).getResultList();
+        boolean hasNext = entities.size() > size;
+        List<T> content = new ArrayList<>(hasNext ? entities.subList(0, size) : entities);
+        String nextCursor = hasNext ? cursorOf(content.get(size - 1), columns) : null;
+        return new Slice<>(load(builder, content), -1, size, hasNext, nextCursor);
+    }
+
+    /**
+     * Stream all the entities matching the {@code builder} in chunks of {@code chunkSize}, read by keyset on the id
+     * of the entity so that the cost of a chunk does not grow with its position.
+     *
+     * @param builder   - must not be null, it is not changed
+     * @param chunkSize - must be positive
+     * @return the lazy stream of the entities, ordered by id
+     * @see #stream(PredicateBuilder, int, int)
+     */
+    public Stream<T> stream(PredicateBuilder<T> builder, int chunkSize) {
+        return stream(builder, chunkSize, chunkSize);
+    }
+
+    /**
+     * Stream all the entities matching the {@code builder} in chunks of {@code chunkSize}, read by keyset on the id
+     * of the entity so that the cost of a chunk does not grow with its position. The persistence context is cleared
+     * before reading each chunk after the first one, so memory does not grow with the number of entities: all the
+     * entities of the entity manager are detached, including the ones loaded before the stream, whose changes are
+     * flushed first if a transaction is active. Prefetches are applied to each chunk; collections cannot be fetched
+     * with joins, as providers would read all the matching rows for each chunk, and should be prefetched with
+     * {@link BatchPrefetchEngine}.
+     *
+     * @param builder   - must not be null, it is not changed
+     * @param chunkSize - must be positive
+     * @param fetchSize - number of rows fetched by the JDBC driver at once, passed with the
+     *                  {@value #FETCH_SIZE_HINT} hint; ignored if not positive
+     * @return the lazy stream of the entities, ordered by id
+     * @throws IllegalArgumentException if the {@link DefaultPrefetchEngine} would fetch a collection
+     */
+    public Stream<T> stream(PredicateBuilder<T> builder, int chunkSize, int fetchSize) {
+        checkSize(chunkSize);
+        String idName = getIdName();
+        if (idName == null) {
+            throw new IllegalArgumentException("Entity " + entityClass.getName() + " must have a single id");
+        }
+        if (builder.getPrefetchEngine() instanceof DefaultPrefetchEngine && DefaultPrefetchEngine.hasCollections(
+                builder.getPrefetches(), entityManager.getMetamodel().entity(entityClass))) {
+            throw new IllegalArgumentException("Collections fetched with joins cannot be streamed in chunks: "
+                    + "prefetch them with BatchPrefetchEngine");
+        }
+        Iterator<T> iterator = new ChunkIterator(builder.copy(), chunkSize, fetchSize, idName);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED
+                | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * @param entity  - must not be null
+     * @param columns - see {@link PredicateBuilder#after(String, String...)}
+     * @return the opaque cursor of the entities following {@code entity} in the order of the {@code columns}
+     * @throws IllegalArgumentException if a column is null or of a type without text encoding
+     */
+    public String cursorOf(T entity, String... columns) {
+        Objects.requireNonNull(entity, "Entity must not be null");
+        return Keyset.of(columns).cursorOf(entityManager.getMetamodel().managedType(entityClass), entity);
+    }
+
+    /**
+     * Count the entities matching the {@code builder}
+     *
+     * @param builder - must not be null
+     * @return the number of entities
+     * @see PredicateBuilder#buildCount(Root, CriteriaQuery, CriteriaBuilder)
+     */
+    public long count(PredicateBuilder<T> builder) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        builder.buildCount(query.from(entityClass), query, criteriaBuilder, parameterBindings);
+        return parameterBindings.applyTo(entityManager.createQuery(query)).getSingleResult();
+    }
+
+    /**
+     * Tell if any entity matches the {@code builder}, selecting a constant for the first match only instead of
+     * counting all the matches. Prefetches, distinct, grouping and projections of the builder are ignored.
+     *
+     * @param builder - must not be null
+     * @return true if an entity matches
+     */
+    public boolean exists(PredicateBuilder<T> builder) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+        Root<T> root = query.from(entityClass);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        query.select(criteriaBuilder.literal(1))
+                .where(builder.buildFilter(root, query, criteriaBuilder, parameterBindings));
+        return !parameterBindings.applyTo(entityManager.createQuery(query)).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    /**
+     * Update all the entities matching the {@code builder} with a single bulk statement, in the current transaction.
+     * The persistence context is not synchronized with the statement.
+     *
+     * @param builder - must not be null
+     * @param setter  - must not be null, setting the new values on the statement
+     * @return the number of entities updated
+     * @see PredicateBuilder#buildUpdate(Root, CriteriaUpdate, CriteriaBuilder, ParameterBindings)
+     */
+    public int update(PredicateBuilder<T> builder, BiConsumer<CriteriaUpdate<T>, Root<T>> setter) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<T> update = criteriaBuilder.createCriteriaUpdate(entityClass);
+        Root<T> root = update.from(entityClass);
+        setter.accept(update, root);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        update.where(builder.buildUpdate(root, update, criteriaBuilder, parameterBindings));
+        return parameterBindings.applyTo(entityManager.createQuery(update)).executeUpdate();
+    }
+
+    /**
+     * Delete all the entities matching the {@code builder} with a single bulk statement, in the current transaction.
+     * The persistence context is not synchronized with the statement, and no cascade is applied.
+     *
+     * @param builder - must not be null
+     * @return the number of entities deleted
+     * @see PredicateBuilder#buildDelete(Root, CriteriaDelete, CriteriaBuilder, ParameterBindings)
+     */
+    public int delete(PredicateBuilder<T> builder) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaDelete<T> delete = criteriaBuilder.createCriteriaDelete(entityClass);
+        Root<T> root = delete.from(entityClass);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        delete.where(builder.buildDelete(root, delete, criteriaBuilder, parameterBindings));
+        return parameterBindings.applyTo(entityManager.createQuery(delete)).executeUpdate();
+    }
+
+    /**
+     * Find all the entities matching the {@code builder} whose property {@code name} is in {@code values},
+     * executing one query per chunk of at most {@code chunkSize} values and merging the results.
+     * Results are in order of chunk, and entities matching more than one chunk are returned once.
+     *
+     * @param builder   - must not be null
+     * @param name      name of the field of the entity to filter.
+     * @param values    - must not be null
+     * @param chunkSize - must be positive
+     * @return the entities found
+     */
+    public List<T> findAllIn(PredicateBuilder<T> builder, String name, Collection<?> values, int chunkSize) {
+        Objects.requireNonNull(values, "Values must not be null");
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        Set<T> results = new LinkedHashSet<>();
+        for (List<?> chunk : InLists.chunk(new LinkedHashSet<>(values), chunkSize)) {
+            results.addAll(findAll(builder.copy().withPropertyIn(name, chunk)));
+        }
+        return new ArrayList<>(results);
+    }
+
+    private static void checkSize(int size) {
+        if (size <= 0 || size == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Size must be positive and less than " + Integer.MAX_VALUE);
+        }
+    }
+
+    private List<T> load(PredicateBuilder<T> builder, List<T> entities) {
+        builder.getPrefetchEngine().load(entityClass, entities, builder.getPrefetches(), entityManager);
+        return entities;
+    }
+
+    private TypedQuery<T> createQuery(PredicateBuilder<T> builder, boolean isOrderRequired) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(entityClass);
+        Root<T> root = query.from(entityClass);
+        ParameterBindings parameterBindings = new ParameterBindings();
+        query.select(root).where(builder.build(root, query, criteriaBuilder, parameterBindings));
+        if (isOrderRequired && query.getOrderList().isEmpty()) {
+            orderById(root, query, criteriaBuilder);
+        }
+        TypedQuery<T> typedQuery = parameterBindings.applyTo(entityManager.createQuery(query));
+        builder.getPrefetchEngine().prepare(entityClass, typedQuery, builder.getPrefetches(), entityManager);
+        return typedQuery;
+    }
+
+    private void orderById(Root<T> root, CriteriaQuery<T> query, CriteriaBuilder criteriaBuilder) {
+        String idName = getIdName();
+        if (idName != null) {
+            query.orderBy(criteriaBuilder.asc(root.get(idName)));
+        }
+    }
+
+    /**
+     * @return the name of the id attribute, or null if the id is composed of more attributes
+     */
+    private String getIdName() {
+        EntityType<T> type = entityManager.getMetamodel().entity(entityClass);
+        return type.hasSingleIdAttribute() ? type.getId(type.getIdType().getJavaType()).getName() : null;
+    }
+
+    private final class ChunkIterator implements Iterator<T> {
+        private final PredicateBuilder<T> builder;
+        private final int chunkSize;
+        private final int fetchSize;
+        private final String idName;
+        private Slice<T> chunk;
+        private Iterator<T> entities = Collections.emptyIterator();
+
+        private ChunkIterator(PredicateBuilder<T> builder, int chunkSize, int fetchSize, String idName) {
+            this.builder = builder;
+            this.chunkSize = chunkSize;
+            this.fetchSize = fetchSize;
+            this.idName = idName;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!entities.hasNext() && (chunk == null || chunk.hasNext())) {
+                String cursor = null;
+                if (chunk != null) {
+                    cursor = chunk.getNextCursor();
+                    if (entityManager.isJoinedToTransaction()) {
+                        entityManager.flush();
+                    }
+                    entityManager.clear();
+                }
+                TypedQuery<T> query = createQuery(builder.copy().after(cursor, idName), false);
+                if (fetchSize > 0) {
+                    query.setHint(FETCH_SIZE_HINT, fetchSize);
+                }
+                chunk = findSliceAfter(builder, chunkSize, query, idName);
+                entities = chunk.getContent().iterator();
+            }
+            return entities.hasNext();
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return entities.next();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.marcopotok.jpb;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Immutable snapshot of a {@link PredicateBuilder}, created by {@link PredicateBuilder#compile()}.
+ * Property paths are parsed once at compile time and every build only binds the {@link Placeholder} values,
+ * so a single template can be shared by all threads as long as its {@link PrefetchEngine} is thread safe.
+ *
+ * @param <T> class of the root
+ */
+public final class QueryTemplate<T> {
+
+    private final List<PredicateContext<T>> predicates;
+    private final FetchTree prefetches;
+    private final Map<String, JoinType> joinTypes;
+    private final Set<String> semiJoins;
+    private final PredicateBuilderOptions options;
+
+    QueryTemplate(List<PredicateContext<T>> predicates, FetchTree prefetches, Map<String, JoinType> joinTypes,
+            Set<String> semiJoins, PredicateBuilderOptions options) {
+        this.predicates = predicates;
+        this.prefetches = prefetches;
+        this.joinTypes = joinTypes;
+        this.semiJoins = semiJoins;
+        this.options = options;
+    }
+
+    /**
+     * Build the predicate without binding any placeholder: predicates on placeholders are ignored
+     *
+     * @param root            - must not be null
+     * @param query           - must not be null
+     * @param criteriaBuilder - must not be null
+     * @return the predicate created
+     */
+    public Predicate build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        return build(root, query, criteriaBuilder, Map.of());
+    }
+
+    /**
+     * Build the predicate binding the placeholders by name.
+     * Predicates on placeholders without a value are ignored, as for null values in {@link PredicateBuilder}.
+     *
+     * @param root            - must not be null
+     * @param query           - must not be null
+     * @param criteriaBuilder - must not be null
+     * @param values          values of the placeholders by name - must not be null
+     * @return the predicate created
+     */
+    public Predicate build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            Map<String, ?> values) {
+        Objects.requireNonNull(values, "Values must not be null");
+        return build(root, query, criteriaBuilder, values, null);
+    }
+
+    /**
+     * Build the predicate binding the placeholders by name and collecting the query parameters in
+     * {@code parameterBindings}, to be applied on the query before its execution.
+     * Values are emitted as parameters only if enabled by {@link PredicateBuilderOptions}.
+     *
+     * @param root              - must not be null
+     * @param query             - must not be null
+     * @param criteriaBuilder   - must not be null
+     * @param values            values of the placeholders by name - must not be null
+     * @param parameterBindings - can be null, in which case values are emitted as literals
+     * @return the predicate created
+     */
+    public Predicate build(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            Map<String, ?> values, ParameterBindings parameterBindings) {
+        Objects.requireNonNull(values, "Values must not be null");
+        options.getPrefetchEngine().prefetch(prefetches, root, query);
+        return new BuildContext<>(root, query, criteriaBuilder, options, joinTypes, semiJoins, values,
+                parameterBindings).toPredicate(predicates);
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.marcopotok.jpb;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.criteria.CommonAbstractCriteria;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+/**
+ * Correlated EXISTS subquery collecting the predicates on the properties under a relation.
+ * Relations are inner joined in the subquery, and shared by all its predicates.
+ */
+final class SemiJoin {
+
+    private final Subquery<Integer> subquery;
+    private final Root<?> correlatedRoot;
+    private final Map<String, Join<?, ?>> joins = new HashMap<>();
+    private final List<Predicate> predicates = new ArrayList<>();
+
+    SemiJoin(CommonAbstractCriteria statement, Root<?> root) {
+        this.subquery = statement.subquery(Integer.class);
+        this.correlatedRoot = subquery.correlate(root);
+    }
+
+    <U> Path<U> getPath(PathPlan pathPlan) {
+        PropertyPath propertyPath = pathPlan.getPropertyPath();
+        int joinDepth = pathPlan.getJoinDepth(false);
+        From<?, ?> fromPath = correlatedRoot;
+        for (int i = 0; i < joinDepth; i++) {
+            Join<?, ?> join = joins.get(propertyPath.getJoinKey(i));
+            if (join == null) {
+                join = fromPath.join(propertyPath.getAttribute(i), JoinType.INNER);
+                joins.put(propertyPath.getJoinKey(i), join);
+            }
+            fromPath = join;
+        }
+        return pathPlan.getPath(fromPath, joinDepth);
+    }
+
+    void add(Predicate predicate) {
+        predicates.add(predicate);
+    }
+
+    Predicate toPredicate(CriteriaBuilder criteriaBuilder) {
+        subquery.select(criteriaBuilder.literal(1)).where(predicates.toArray(Predicate[]::new));
+        return criteriaBuilder.exists(subquery);
+    }
+}
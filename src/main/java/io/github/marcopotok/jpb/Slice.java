@@ -0,0 +1,68 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Slice of the entities found by {@link QueryExecutor#findSlice(PredicateBuilder, int, int)} or
+ * {@link QueryExecutor#findSliceAfter(PredicateBuilder, String, int, String...)}, telling if a next slice exists
+ * without the total number of entities.
+ *
+ * @param <T> class of the entities
+ */
+public final class Slice<T> {
+
+    private final List<T> content;
+    private final int page;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    Slice(List<T> content, int page, int size, boolean hasNext) {
+        this(content, page, size, hasNext, null);
+    }
+
+    Slice(List<T> content, int page, int size, boolean hasNext, String nextCursor) {
+        this.content = Collections.unmodifiableList(content);
+        this.page = page;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * @return the entities of the slice, at most {@link #getSize()}
+     */
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the index of the slice, starting from 0, or -1 if the slice was found after a cursor
+     */
+    public int getPage() {
+        return page;
+    }
+
+    /**
+     * @return the requested size of the slice
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return true if there are entities after this slice
+     */
+    public boolean hasNext() {
+        return hasNext;
+    }
+
+    /**
+     * @return the cursor of the next slice if the slice was found after a cursor and has a next one, null otherwise
+     * @see QueryExecutor#findSliceAfter(PredicateBuilder, String, int, String...)
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,77 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Customer;
+import io.github.marcopotok.jpb.model.Order;
+
+class BatchPrefetchEngineTest extends DatabaseTest {
+
+    @Test
+    void collectionsShouldBeLoaded() {
+        List<Order> orders = QueryExecutor.of(entityManager, Order.class)
+                .findAll(builder(Order.class, 4).prefetch("items,payments"));
+        entityManager.clear();
+        assertEquals(TestDatabase.ORDERS, orders.size());
+        for (Order order : orders) {
+            assertEquals(order.getId(), order.getItems().iterator().next().getId());
+            assertEquals(order.getId(), order.getPayments().iterator().next().getId());
+        }
+    }
+
+    @Test
+    void nestedAttributesShouldBeLoaded() {
+        List<Customer> customers = QueryExecutor.of(entityManager, Customer.class)
+                .findAll(builder(Customer.class, 3).withPropertyIn("id", List.of(1L, 2L)).prefetch("orders.[items,customer]"));
+        entityManager.clear();
+        assertEquals(2, customers.size());
+        for (Customer customer : customers) {
+            assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, customer.getOrders().size());
+            for (Order order : customer.getOrders()) {
+                assertEquals(1, order.getItems().size());
+                assertEquals(customer.getName(), order.getCustomer().getName());
+            }
+        }
+    }
+
+    @Test
+    void singularAttributesShouldBeLoaded() {
+        List<Order> orders = QueryExecutor.of(entityManager, Order.class)
+                .findAll(builder(Order.class, 2).withProperty("customer.id", 5L).prefetch("customer.referrer"));
+        entityManager.clear();
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, orders.size());
+        for (Order order : orders) {
+            assertEquals("customer 4", order.getCustomer().getReferrer().getName());
+        }
+    }
+
+    @Test
+    void queryShouldNotFetch() {
+        FakeRoot<Order> root = new FakeRoot<>("");
+        builder(Order.class, 1).prefetch("items").build(root, new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertTrue(root.getFetches().isEmpty());
+    }
+
+    @Test
+    void unknownAttributeShouldBeRejected() {
+        QueryExecutor<Order> executor = QueryExecutor.of(entityManager, Order.class);
+        assertThrows(IllegalArgumentException.class, () -> executor.findAll(builder(Order.class, 1).prefetch("unknown")));
+    }
+
+    @Test
+    void invalidBatchSizeShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchPrefetchEngine(0));
+    }
+
+    private static <T> PredicateBuilder<T> builder(Class<T> type, int batchSize) {
+        return new PredicateBuilder<>(PredicateBuilderOptions.builder()
+                .withPrefetchEngine(new BatchPrefetchEngine(batchSize))
+                .build());
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Customer;
+import io.github.marcopotok.jpb.model.Order;
+import io.github.marcopotok.jpb.model.Payment;
+
+class BulkStatementTest extends DatabaseTest {
+
+    private QueryExecutor<Order> executor;
+
+    @BeforeEach
+    void setUp() {
+        entityManager.getTransaction().begin();
+        executor = QueryExecutor.of(entityManager, Order.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        entityManager.getTransaction().rollback();
+    }
+
+    @Test
+    void updateOnRootProperties() {
+        int updated = executor.update(PredicateBuilder.of(Order.class).withProperty("status", "OPEN"),
+                (update, root) -> update.set(root.get("status"), "ARCHIVED"));
+        assertEquals(TestDatabase.ORDERS / 3, updated);
+        assertEquals(TestDatabase.ORDERS / 3, executor.count(PredicateBuilder.of(Order.class).withProperty("status", "ARCHIVED")));
+    }
+
+    @Test
+    void updateOnJoinedPath() {
+        int updated = executor.update(PredicateBuilder.of(Order.class).withProperty("customer.name", "customer 1"),
+                (update, root) -> update.set(root.get("status"), "ARCHIVED"));
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, updated);
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, executor.count(PredicateBuilder.of(Order.class)
+                .withProperty("customer.id", 1L)
+                .withProperty("status", "ARCHIVED")));
+    }
+
+    @Test
+    void updateOnCollectionPath() {
+        int updated = QueryExecutor.of(entityManager, Customer.class)
+                .update(PredicateBuilder.of(Customer.class).withProperty("orders.status", "CLOSED"),
+                        (update, root) -> update.set(root.get("name"), "renamed"));
+        assertEquals(TestDatabase.CUSTOMERS, updated);
+    }
+
+    @Test
+    void updateOnSemiJoinedCollection() {
+        PredicateBuilder<Customer> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPluralSemiJoins().withParameterizedValues().build());
+        int updated = QueryExecutor.of(entityManager, Customer.class)
+                .update(builder.withProperty("orders.items.name", "item 4"),
+                        (update, root) -> update.set(root.get("name"), "renamed"));
+        assertEquals(1, updated);
+    }
+
+    @Test
+    void updateWithClauseOnJoinedPath() {
+        int updated = executor.update(PredicateBuilder.of(Order.class)
+                        .with((criteriaBuilder, pathProvider) -> criteriaBuilder.equal(
+                                pathProvider.get("customer.name"), "customer 1")),
+                (update, root) -> update.set(root.get("status"), "ARCHIVED"));
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, updated);
+    }
+
+    @Test
+    void updateOnEmbeddedPathShouldNotJoin() {
+        QueryExecutor<Customer> customers = QueryExecutor.of(entityManager, Customer.class);
+        int updated = customers.update(PredicateBuilder.of(Customer.class).withProperty("address.city", "city 1"),
+                (update, root) -> update.set(root.get("name"), "renamed"));
+        assertEquals(TestDatabase.CUSTOMERS / 3, updated);
+    }
+
+    @Test
+    void deleteOnJoinedPathWithParameters() {
+        PredicateBuilder<Payment> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withParameterizedValues().build());
+        QueryExecutor<Payment> payments = QueryExecutor.of(entityManager, Payment.class);
+        int deleted = payments.delete(builder.withProperty("order.customer.name", "customer 2")
+                .withPropertyAfter("amount", 60L));
+        assertEquals(2, deleted);
+        assertEquals(TestDatabase.ORDERS - 2, payments.count(PredicateBuilder.of(Payment.class)));
+    }
+}
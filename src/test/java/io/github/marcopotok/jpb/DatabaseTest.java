@@ -0,0 +1,42 @@
+package io.github.marcopotok.jpb;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+
+/**
+ * Base of the tests running on a {@link TestDatabase}, created once per test class, with an entity manager opened
+ * for each test.
+ */
+abstract class DatabaseTest {
+
+    static EntityManagerFactory entityManagerFactory;
+    EntityManager entityManager;
+    CriteriaBuilder criteriaBuilder;
+
+    @BeforeAll
+    static void setUpDatabase() {
+        entityManagerFactory = TestDatabase.create();
+    }
+
+    @AfterAll
+    static void tearDownDatabase() {
+        entityManagerFactory.close();
+    }
+
+    @BeforeEach
+    void setUpEntityManager() {
+        entityManager = entityManagerFactory.createEntityManager();
+        criteriaBuilder = entityManager.getCriteriaBuilder();
+    }
+
+    @AfterEach
+    void tearDownEntityManager() {
+        entityManager.close();
+    }
+}
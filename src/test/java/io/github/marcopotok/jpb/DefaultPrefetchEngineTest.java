@@ -2,7 +2,11 @@ package io.github.marcopotok.jpb;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -74,8 +78,46 @@ class DefaultPrefetchEngineTest {
         assertStringMatches("(fetch attribute(fetch nested))", getFetches(root));
     }
 
+    @Test
+    void prefetchesOnDifferentRootsShouldBeIndependent() {
+        FakeRoot<Object> other = new FakeRoot<>("");
+        engine.prefetch("attribute.nested", root, query);
+        engine.prefetch("attribute.nested", other, query);
+        assertStringMatches("(fetch attribute(fetch nested))", getFetches(root));
+        assertStringMatches("(fetch attribute(fetch nested))", getFetches(other));
+    }
+
+    @Test
+    void existingFetchesShouldBeReused() {
+        root.fetch("attribute").fetch("nested");
+        engine.prefetch("attribute.[nested,other]", root, query);
+        assertStringMatches("(fetch attribute(fetch nested,fetch other))", getFetches(root));
+    }
+
+    @Test
+    void concurrentPrefetchesShouldNotInterfere() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                String spec = "attribute" + i % 10 + ".[nested,other.deep]";
+                futures.add(executor.submit(() -> {
+                    FakeRoot<Object> current = new FakeRoot<>("");
+                    engine.prefetch(spec, current, query);
+                    return getFetches(current);
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertStringMatches("(fetch attribute" + i % 10 + "(fetch nested,fetch other(fetch deep)))",
+                        futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private String getFetches(FakeRoot<Object> root) {
-        return root.getFetches().stream().map(Objects::toString).sorted().collect(Collectors.joining("-"));
+        return root.getFetches().stream().map(fetch -> "(" + fetch + ")").sorted().collect(Collectors.joining("-"));
     }
 
     private void assertStringMatches(String expected, String actual) {
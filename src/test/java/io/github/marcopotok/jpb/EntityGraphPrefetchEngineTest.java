@@ -0,0 +1,86 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.EntityGraph;
+import jakarta.persistence.EntityManager;
+
+class EntityGraphPrefetchEngineTest extends DatabaseTest {
+
+    private QueryExecutor<Order> executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = QueryExecutor.of(entityManager, Order.class);
+    }
+
+    @Test
+    void attributesShouldBeLoaded() {
+        List<Order> orders = executor.findAll(builder(new EntityGraphPrefetchEngine())
+                .withProperty("customer.id", 5L)
+                .prefetch("customer.referrer,items"));
+        entityManager.clear();
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, orders.size());
+        for (Order order : orders) {
+            assertEquals("customer 4", order.getCustomer().getReferrer().getName());
+            assertEquals(order.getId(), order.getItems().iterator().next().getId());
+        }
+    }
+
+    @Test
+    void attributesShouldBeLoadedWithFetchGraph() {
+        List<Order> orders = executor.findAll(builder(new EntityGraphPrefetchEngine(EntityGraphPrefetchEngine.FETCH_GRAPH))
+                .withProperty("id", 7L)
+                .prefetch("payments"));
+        entityManager.clear();
+        assertEquals(70, orders.get(0).getPayments().iterator().next().getAmount());
+    }
+
+    @Test
+    void graphShouldBeBuiltOncePerTree() {
+        EntityGraphPrefetchEngine engine = new EntityGraphPrefetchEngine();
+        EntityGraph<?> graph = engine.getEntityGraph(Order.class, FetchTree.parse("items.order"), entityManager);
+        EntityManager otherEntityManager = entityManagerFactory.createEntityManager();
+        try {
+            assertSame(graph, engine.getEntityGraph(Order.class, FetchTree.parse("items,items.order"),
+                    otherEntityManager));
+        } finally {
+            otherEntityManager.close();
+        }
+        assertNotSame(graph, engine.getEntityGraph(Order.class, FetchTree.parse("items"), entityManager));
+    }
+
+    @Test
+    void graphShouldNotBeRegisteredInFactory() {
+        int namedGraphs = entityManager.getEntityGraphs(Order.class).size();
+        executor.findAll(builder(new EntityGraphPrefetchEngine()).prefetch("customer,items.order"));
+        assertEquals(namedGraphs, entityManager.getEntityGraphs(Order.class).size());
+    }
+
+    @Test
+    void queryShouldNotFetch() {
+        FakeRoot<Order> root = new FakeRoot<>("");
+        builder(new EntityGraphPrefetchEngine()).prefetch("items")
+                .build(root, new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertTrue(root.getFetches().isEmpty());
+    }
+
+    @Test
+    void unknownHintShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new EntityGraphPrefetchEngine("unknown"));
+    }
+
+    private static PredicateBuilder<Order> builder(PrefetchEngine engine) {
+        return new PredicateBuilder<>(PredicateBuilderOptions.builder().withPrefetchEngine(engine).build());
+    }
+}
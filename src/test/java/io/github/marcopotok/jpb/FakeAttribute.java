@@ -0,0 +1,50 @@
+package io.github.marcopotok.jpb;
+
+import java.lang.reflect.Member;
+
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+
+final class FakeAttribute<X, Y> implements Attribute<X, Y> {
+
+    private final String name;
+
+    FakeAttribute(String name) {
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public PersistentAttributeType getPersistentAttributeType() {
+        return null;
+    }
+
+    @Override
+    public ManagedType<X> getDeclaringType() {
+        return null;
+    }
+
+    @Override
+    public Class<Y> getJavaType() {
+        return null;
+    }
+
+    @Override
+    public Member getJavaMember() {
+        return null;
+    }
+
+    @Override
+    public boolean isAssociation() {
+        return false;
+    }
+
+    @Override
+    public boolean isCollection() {
+        return false;
+    }
+}
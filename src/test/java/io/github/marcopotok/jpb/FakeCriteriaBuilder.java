@@ -34,6 +34,8 @@ import jakarta.persistence.criteria.Subquery;
 
 class FakeCriteriaBuilder implements CriteriaBuilder {
 
+    private int parameters;
+
     @Override
     public Predicate conjunction() {
         return new FakePredicate("1=1");
@@ -256,41 +258,41 @@ class FakeCriteriaBuilder implements CriteriaBuilder {
 
     @Override
     public Predicate notEqual(Expression<?> x, Expression<?> y) {
-        return null;
+        return new FakePredicate(x + " not equal " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate greaterThan(Expression<? extends Y> x,
             Expression<? extends Y> y) {
-        return null;
+        return new FakePredicate(x + " > " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate greaterThanOrEqualTo(Expression<? extends Y> x,
             Expression<? extends Y> y) {
-        return null;
+        return new FakePredicate(x + " >= " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate lessThan(Expression<? extends Y> x, Expression<? extends Y> y) {
-        return null;
+        return new FakePredicate(x + " < " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate lessThanOrEqualTo(Expression<? extends Y> x,
             Expression<? extends Y> y) {
-        return null;
+        return new FakePredicate(x + " <= " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate between(Expression<? extends Y> v, Expression<? extends Y> x,
             Expression<? extends Y> y) {
-        return null;
+        return new FakePredicate(v + " between " + x + " and " + y);
     }
 
     @Override
     public <Y extends Comparable<? super Y>> Predicate between(Expression<? extends Y> v, Y x, Y y) {
-        return null;
+        return new FakePredicate(v + " between " + x + " and " + y);
     }
 
     @Override
@@ -510,7 +512,7 @@ class FakeCriteriaBuilder implements CriteriaBuilder {
 
     @Override
     public <T> ParameterExpression<T> parameter(Class<T> paramClass) {
-        return null;
+        return new FakeParameterExpression<>(paramClass, "p" + ++parameters);
     }
 
     @Override
@@ -570,7 +572,7 @@ class FakeCriteriaBuilder implements CriteriaBuilder {
 
     @Override
     public Predicate like(Expression<String> x, Expression<String> pattern) {
-        return null;
+        return new FakePredicate(x + " like " + pattern);
     }
 
     @Override
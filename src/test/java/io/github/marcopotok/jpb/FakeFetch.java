@@ -16,9 +16,11 @@ final class FakeFetch<X, Y> implements Fetch<X, Y> {
 
     private final Set<Fetch<Y, ?>> fetches = new LinkedHashSet<>();
     private final String attribute;
+    private final String attributeName;
 
-    FakeFetch(String attribute) {
-        this.attribute = attribute;
+    FakeFetch(String attributeName) {
+        this.attribute = String.format("fetch %s", attributeName);
+        this.attributeName = attributeName;
     }
 
     @Override
@@ -35,7 +37,7 @@ final class FakeFetch<X, Y> implements Fetch<X, Y> {
 
     @Override
     public <X1, Y2> Fetch<X1, Y2> fetch(String attributeName) {
-        FakeFetch<Y, X1> fetch = new FakeFetch<>(String.format("fetch %s", attributeName));
+        FakeFetch<Y, X1> fetch = new FakeFetch<>(attributeName);
         fetches.add(fetch);
         @SuppressWarnings("unchecked")
         Fetch<X1, Y2> cast = (Fetch<X1, Y2>) fetch;
@@ -49,7 +51,7 @@ final class FakeFetch<X, Y> implements Fetch<X, Y> {
 
     @Override
     public Attribute<? super X, ?> getAttribute() {
-        return null;
+        return new FakeAttribute<>(attributeName);
     }
 
     @Override
@@ -200,7 +200,7 @@ class FakeJoin<X, Y> implements Join<X, Y> {
 
     @Override
     public Set<Fetch<Y, ?>> getFetches() {
-        return null;
+        return Set.of();
     }
 
     @Override
@@ -290,7 +290,7 @@ class FakeJoin<X, Y> implements Join<X, Y> {
 
     @Override
     public Predicate in(Expression<Collection<?>> values) {
-        return null;
+        return new FakePredicate(attribute + " in " + values);
     }
 
     @Override
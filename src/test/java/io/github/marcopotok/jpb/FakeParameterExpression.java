@@ -0,0 +1,100 @@
+package io.github.marcopotok.jpb;
+
+import java.util.Collection;
+import java.util.List;
+
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.ParameterExpression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Selection;
+
+final class FakeParameterExpression<T> implements ParameterExpression<T> {
+
+    private final Class<T> parameterType;
+    private final String name;
+
+    FakeParameterExpression(Class<T> parameterType, String name) {
+        this.parameterType = parameterType;
+        this.name = name;
+    }
+
+    @Override
+    public String toString() {
+        return ":" + name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Integer getPosition() {
+        return null;
+    }
+
+    @Override
+    public Class<T> getParameterType() {
+        return parameterType;
+    }
+
+    @Override
+    public Predicate isNull() {
+        return null;
+    }
+
+    @Override
+    public Predicate isNotNull() {
+        return null;
+    }
+
+    @Override
+    public Predicate in(Object... values) {
+        return null;
+    }
+
+    @Override
+    public Predicate in(Expression<?>... values) {
+        return null;
+    }
+
+    @Override
+    public Predicate in(Collection<?> values) {
+        return null;
+    }
+
+    @Override
+    public Predicate in(Expression<Collection<?>> values) {
+        return null;
+    }
+
+    @Override
+    public <X> Expression<X> as(Class<X> type) {
+        return null;
+    }
+
+    @Override
+    public Selection<T> alias(String name) {
+        return null;
+    }
+
+    @Override
+    public boolean isCompoundSelection() {
+        return false;
+    }
+
+    @Override
+    public List<Selection<?>> getCompoundSelectionItems() {
+        return null;
+    }
+
+    @Override
+    public Class<? extends T> getJavaType() {
+        return parameterType;
+    }
+
+    @Override
+    public String getAlias() {
+        return null;
+    }
+}
@@ -89,9 +89,11 @@ final class FakeRoot<T> implements Root<T> {
 
     @Override
     public <X, Y> Fetch<X, Y> fetch(String attributeName) {
-        Fetch<T, ?> fetch = new FakeFetch<>(this.attributeName);
+        FakeFetch<T, ?> fetch = new FakeFetch<>(attributeName);
         fetches.add(fetch);
-        return fetch.fetch(attributeName);
+        @SuppressWarnings("unchecked")
+        Fetch<X, Y> cast = (Fetch<X, Y>) fetch;
+        return cast;
     }
 
     @Override
@@ -246,7 +248,7 @@ final class FakeRoot<T> implements Root<T> {
 
     @Override
     public Predicate in(Expression<Collection<?>> values) {
-        return null;
+        return new FakePredicate(attributeName + " in " + values);
     }
 
     @Override
@@ -0,0 +1,81 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class FetchTreeTest {
+
+    @Test
+    void emptySpecShouldResultInEmptyTree() {
+        assertTrue(FetchTree.parse("").isEmpty());
+    }
+
+    @Test
+    void parsedSpecShouldBeReused() {
+        FetchTree tree = FetchTree.of("user.profile,address");
+        assertSame(tree, FetchTree.of("user.profile,address"));
+        assertEquals(FetchTree.parse("user.profile,address"), tree);
+    }
+
+    @Test
+    void chainsShouldShareTheirPrefixes() {
+        FetchTree tree = FetchTree.parse("user.profile,user.roles.permissions,address");
+        assertEquals("user.[profile,roles.permissions],address", tree.toString());
+    }
+
+    @Test
+    void nestedListsShouldBeParsed() {
+        FetchTree tree = FetchTree.parse("first,attribute.[nested.[deep,other.[deeper,x]]]");
+        assertEquals("first,attribute.nested.[deep,other.[deeper,x]]", tree.toString());
+    }
+
+    @Test
+    void chainShouldContinueAfterNestedList() {
+        assertEquals("a.[b,c,d]", FetchTree.parse("a.[b,c].d").toString());
+    }
+
+    @Test
+    void normalizedSpecShouldParseToSameTree() {
+        FetchTree tree = FetchTree.parse("a.[b.c,b.d],a.e,f");
+        assertEquals(tree, FetchTree.parse(tree.toString()));
+    }
+
+    @Test
+    void deeplyNestedSpecShouldBeParsed() {
+        StringBuilder spec = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            spec.append("a").append(i).append(".[");
+        }
+        spec.append("leaf");
+        spec.append("]".repeat(500));
+        FetchTree tree = FetchTree.parse(spec.toString());
+        for (int i = 0; i < 500; i++) {
+            tree = tree.getChildren().get("a" + i);
+        }
+        assertTrue(tree.getChildren().containsKey("leaf"));
+    }
+
+    @Test
+    void mergeShouldResultInUnion() {
+        FetchTree merged = FetchTree.parse("a.b,c").merge(FetchTree.parse("a.[d,b.e],f"));
+        assertEquals("a.[b.e,d],c,f", merged.toString());
+        assertEquals(merged, merged.merge(FetchTree.parse("a.d")));
+    }
+
+    @Test
+    void mergeWithEmptyShouldReturnSameTree() {
+        FetchTree tree = FetchTree.parse("a.b");
+        assertSame(tree, tree.merge(FetchTree.empty()));
+        assertSame(tree, FetchTree.empty().merge(tree));
+    }
+
+    @Test
+    void unbalancedBracketsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> FetchTree.parse("a.[b"));
+        assertThrows(IllegalArgumentException.class, () -> FetchTree.parse("a.b]"));
+    }
+}
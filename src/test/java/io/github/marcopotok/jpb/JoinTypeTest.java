@@ -0,0 +1,135 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+class JoinTypeTest extends DatabaseTest {
+
+    private static final Placeholder<String> NAME = Placeholder.named("name");
+
+    private CriteriaQuery<Order> query;
+    private Root<Order> root;
+
+    @BeforeEach
+    void setUp() {
+        query = criteriaBuilder.createQuery(Order.class);
+        root = query.from(Order.class);
+    }
+
+    @Test
+    void nullRejectingPredicateShouldInnerJoin() {
+        List<Order> orders = find(promoting().withProperty("customer.referrer.name", "customer 0"));
+        assertEquals(List.of(JoinType.INNER, JoinType.INNER), joinTypes());
+        assertEquals(List.of(3L, 4L, 5L), ids(orders));
+    }
+
+    @Test
+    void nullTolerantPredicateShouldLeftJoin() {
+        List<Order> orders = find(promoting().withNullProperty("customer.referrer.name"));
+        assertEquals(List.of(JoinType.LEFT, JoinType.LEFT), joinTypes());
+        assertEquals(List.of(0L, 1L, 2L), ids(orders));
+    }
+
+    @Test
+    void conjunctionWithNullRejectingPredicateShouldInnerJoin() {
+        find(promoting()
+                .withNullProperty("customer.referrer.name")
+                .withPropertyIn("customer.name", List.of("customer 1")));
+        assertEquals(List.of(JoinType.INNER, JoinType.LEFT), joinTypes());
+    }
+
+    @Test
+    void unboundPlaceholderShouldNotInnerJoin() {
+        QueryTemplate<Order> template = promoting()
+                .withProperty("customer.name", NAME)
+                .withNotNullProperty("customer.address.city")
+                .compile();
+        template.build(root, query, criteriaBuilder, Map.of());
+        assertEquals(List.of(JoinType.LEFT), joinTypes());
+    }
+
+    @Test
+    void boundPlaceholderShouldInnerJoin() {
+        QueryTemplate<Order> template = promoting().withProperty("customer.name", NAME).compile();
+        template.build(root, query, criteriaBuilder, Map.of("name", "customer 1"));
+        assertEquals(List.of(JoinType.INNER), joinTypes());
+    }
+
+    @Test
+    void joinTypeShouldOverridePromotion() {
+        find(promoting()
+                .withJoinType("customer", JoinType.LEFT)
+                .withProperty("customer.referrer.name", "customer 0"));
+        assertEquals(List.of(JoinType.LEFT, JoinType.INNER), joinTypes());
+    }
+
+    @Test
+    void promotionShouldBeDisabledByDefault() {
+        find(PredicateBuilder.of(Order.class).withProperty("customer.name", "customer 1"));
+        assertEquals(List.of(JoinType.LEFT), joinTypes());
+    }
+
+    @Test
+    void disjunctionOfBuildersShouldKeepRowsWithoutRelation() {
+        CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+        Root<Order> countRoot = countQuery.from(Order.class);
+        countQuery.select(criteriaBuilder.count(countRoot)).where(criteriaBuilder.or(
+                PredicateBuilder.of(Order.class).withProperty("customer.referrer.name", "customer 0")
+                        .build(countRoot, countQuery, criteriaBuilder),
+                PredicateBuilder.of(Order.class).withProperty("customer.id", 0L)
+                        .build(countRoot, countQuery, criteriaBuilder)));
+        assertEquals(2L * TestDatabase.ORDERS_PER_CUSTOMER, entityManager.createQuery(countQuery).getSingleResult());
+    }
+
+    @Test
+    void restrictedJoinShouldNotBePromoted() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withoutJoinsCache().withInnerJoinPromotion().build());
+        List<Order> orders = find(builder
+                .withProperty("customer.name", "customer 1")
+                .with((criteriaBuilder, pathProvider) -> criteriaBuilder.isNull(pathProvider.get("customer.name",
+                        join -> criteriaBuilder.equal(join.get("name"), "customer 2")))));
+        assertEquals(List.of(JoinType.INNER, JoinType.LEFT), joinTypes().stream().sorted().collect(Collectors.toList()));
+        assertEquals(List.of(3L, 4L, 5L), ids(orders));
+    }
+
+    private static PredicateBuilder<Order> promoting() {
+        return new PredicateBuilder<>(PredicateBuilderOptions.builder().withInnerJoinPromotion().build());
+    }
+
+    private List<Order> find(PredicateBuilder<Order> builder) {
+        query.select(root).where(builder.build(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * @return the types of the joins in depth first order
+     */
+    private List<JoinType> joinTypes() {
+        return root.getJoins().stream().flatMap(join -> joinTypes(join).stream()).collect(Collectors.toList());
+    }
+
+    private static List<JoinType> joinTypes(Join<?, ?> join) {
+        List<JoinType> joinTypes = new ArrayList<>();
+        joinTypes.add(join.getJoinType());
+        join.getJoins().forEach(child -> joinTypes.addAll(joinTypes(child)));
+        return joinTypes;
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
+}
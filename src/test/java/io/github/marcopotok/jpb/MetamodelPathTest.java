@@ -0,0 +1,108 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Customer;
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+class MetamodelPathTest extends DatabaseTest {
+
+    private CriteriaQuery<Order> query;
+    private Root<Order> root;
+
+    @BeforeEach
+    void setUp() {
+        query = criteriaBuilder.createQuery(Order.class);
+        root = query.from(Order.class);
+    }
+
+    @Test
+    void manyToOneIdentifierShouldNotJoin() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class).withProperty("customer.id", 2L));
+        assertEquals(List.of(), joins());
+        assertEquals(List.of(6L, 7L, 8L), ids(orders));
+    }
+
+    @Test
+    void manyToOneIdentifierShouldJoinOnlyUpToTheOwner() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class).withProperty("customer.referrer.id", 2L));
+        assertEquals(List.of("customer"), joins());
+        assertEquals(List.of(9L, 10L, 11L), ids(orders));
+    }
+
+    @Test
+    void manyToOneIdentifierShouldKeepNullSemantics() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class).withNullProperty("customer.referrer.id"));
+        assertEquals(List.of(0L, 1L, 2L), ids(orders));
+    }
+
+    @Test
+    void otherAttributesShouldJoin() {
+        find(PredicateBuilder.of(Order.class).withProperty("customer.name", "customer 1"));
+        assertEquals(List.of("customer"), joins());
+    }
+
+    @Test
+    void restrictedJoinShouldNotBeEliminated() {
+        find(PredicateBuilder.of(Order.class).with((criteriaBuilder, pathProvider) -> criteriaBuilder.equal(
+                pathProvider.get("customer.id", join -> criteriaBuilder.conjunction()), 2L)));
+        assertEquals(List.of("customer"), joins());
+    }
+
+    @Test
+    void embeddableShouldNotJoin() {
+        CriteriaQuery<Customer> customerQuery = criteriaBuilder.createQuery(Customer.class);
+        Root<Customer> customer = customerQuery.from(Customer.class);
+        customerQuery.select(customer).where(PredicateBuilder.of(Customer.class)
+                .withProperty("address.city", "city 1")
+                .build(customer, customerQuery, criteriaBuilder));
+        List<Customer> customers = entityManager.createQuery(customerQuery).getResultList();
+        assertEquals(0, customer.getJoins().size());
+        assertEquals(List.of(1L, 4L, 7L),
+                customers.stream().map(Customer::getId).sorted().collect(Collectors.toList()));
+    }
+
+    @Test
+    void embeddableShouldNotJoinAfterAssociation() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class).withProperty("customer.address.city", "city 2"));
+        assertEquals(List.of("customer"), joins());
+        assertEquals(List.of(6L, 7L, 8L, 15L, 16L, 17L, 24L, 25L, 26L), ids(orders));
+    }
+
+    @Test
+    void pathPlanShouldBeCachedPerEntityAndPath() {
+        PathPlan plan = PathPlan.of(root.getModel(), "customer.address.city");
+        assertSame(plan, PathPlan.of(root.getModel(), PropertyPath.parse("customer.address.city")));
+        assertEquals(1, plan.getJoinDepth(false));
+    }
+
+    @Test
+    void prefetchesShouldBeDeduplicatedOnProviderFetches() {
+        find(PredicateBuilder.of(Order.class).prefetch("customer").prefetch("customer.referrer")
+                .prefetch("customer.[referrer,referrer]"));
+        assertEquals(1, root.getFetches().size());
+        assertEquals(1, root.getFetches().iterator().next().getFetches().size());
+    }
+
+    private List<Order> find(PredicateBuilder<Order> builder) {
+        query.select(root).where(builder.build(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<String> joins() {
+        return root.getJoins().stream().map(join -> join.getAttribute().getName()).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,90 @@
+package io.github.marcopotok.jpb;
+
+import static io.github.marcopotok.jpb.StringUtils.assertStringMatches;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jakarta.persistence.Parameter;
+import jakarta.persistence.criteria.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ParameterBindingsTest {
+
+    private PredicateBuilder<Object> builder;
+    private ParameterBindings bindings;
+
+    @BeforeEach
+    void setUp() {
+        builder = new PredicateBuilder<>(PredicateBuilderOptions.builder()
+                .withPrefetchEngine(new FakePrefetchEngine())
+                .withParameterizedValues()
+                .build());
+        bindings = new ParameterBindings();
+    }
+
+    @Test
+    void valuesShouldResultInParameters() {
+        Predicate predicate = build(builder.withProperty("name", "value")
+                .withPropertyIgnoreCase("surname", "Value")
+                .withPropertyIn("id", List.of(1, 2))
+                .withPropertyNotIn("other", List.of(3))
+                .withPropertyLikeIgnoreCase("user.email", "*mail*")
+                .withPropertyAfter("version", 1));
+        assertStringMatches("name equal :p1 and upper(surname) equal :p2 and id in :p3 and not other in :p4 and "
+                + "upper( join user email) like :p5 and version > :p6", predicate.toString());
+        assertEquals(List.of("value", "VALUE", List.of(1, 2), List.of(3), "%MAIL%", 1),
+                List.copyOf(bindings.getValues().values()));
+    }
+
+    @Test
+    void parametersShouldBeTyped() {
+        build(builder.withProperty("name", "value").withPropertyIn("id", List.of(1, 2)));
+        List<Class<?>> types = bindings.getValues()
+                .keySet()
+                .stream()
+                .map(Parameter::getParameterType)
+                .collect(Collectors.toList());
+        assertEquals(List.of(String.class, Collection.class), types);
+    }
+
+    @Test
+    void nullPredicatesShouldNotResultInParameters() {
+        Predicate predicate = build(builder.withNullProperty("name").withNotNullProperty("surname"));
+        assertStringMatches("name is null and surname is not null", predicate.toString());
+        assertTrue(bindings.getValues().isEmpty());
+    }
+
+    @Test
+    void templateShouldBindPlaceholdersAsParameters() {
+        QueryTemplate<Object> template = builder.withProperty("name", Placeholder.named("name")).compile();
+        Predicate predicate = template.build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder(),
+                Map.of("name", "value"), bindings);
+        assertStringMatches("name equal :p1", predicate.toString());
+        assertEquals(List.of("value"), List.copyOf(bindings.getValues().values()));
+    }
+
+    @Test
+    void withoutBindingsValuesShouldResultInLiterals() {
+        Predicate predicate = builder.withProperty("name", "value")
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("name equal value", predicate.toString());
+    }
+
+    @Test
+    void withoutOptionValuesShouldResultInLiterals() {
+        Predicate predicate = build(PredicateBuilder.builder().withProperty("name", "value"));
+        assertStringMatches("name equal value", predicate.toString());
+        assertTrue(bindings.getValues().isEmpty());
+    }
+
+    private Predicate build(PredicateBuilder<Object> builder) {
+        return builder.build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder(), bindings);
+    }
+}
@@ -0,0 +1,107 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Order;
+
+class PartitionedScanTest extends DatabaseTest {
+
+    private static ExecutorService executorService;
+
+    @BeforeAll
+    static void setUpExecutor() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterAll
+    static void tearDownExecutor() {
+        executorService.shutdown();
+    }
+
+    @Test
+    void scanShouldReadAllPartitions() {
+        assertEquals(LongStream.range(0, TestDatabase.ORDERS).filter(id -> id % 3 != 0).boxed().collect(Collectors.toList()),
+                scan(PredicateBuilder.of(Order.class).withProperty("status", "CLOSED"), 4, 2));
+    }
+
+    @Test
+    void scanShouldReadMorePartitionsThanIds() {
+        assertEquals(List.of(3L, 4L, 5L), scan(PredicateBuilder.of(Order.class).withProperty("customer.id", 1L), 10, 1));
+    }
+
+    @Test
+    void scanShouldReadSingleId() {
+        assertEquals(List.of(0L), scan(PredicateBuilder.of(Order.class).withProperty("id", 0L), 3, 1));
+    }
+
+    @Test
+    void scanShouldReadNothingWithoutMatches() {
+        assertTrue(scan(PredicateBuilder.of(Order.class).withProperty("status", "UNKNOWN"), 3, 1).isEmpty());
+    }
+
+    @Test
+    void scanShouldIgnoreOrderingOfBuilder() {
+        assertEquals(List.of(3L, 4L, 5L),
+                scan(PredicateBuilder.of(Order.class).withProperty("customer.id", 1L).after(null, "-date"), 2, 1));
+    }
+
+    @Test
+    void scanShouldThrowFailureOfPartition() {
+        PartitionedScan<Order> scan = PartitionedScan.of(entityManagerFactory, Order.class, executorService);
+        assertThrows(IllegalStateException.class, () -> scan.scan(PredicateBuilder.of(Order.class), 2, order -> {
+            throw new IllegalStateException("failure");
+        }));
+    }
+
+    @Test
+    void scanShouldStopPartitionsOnFailure() throws InterruptedException {
+        PartitionedScan<Order> scan = PartitionedScan.of(entityManagerFactory, Order.class, executorService);
+        AtomicBoolean isReturned = new AtomicBoolean();
+        AtomicInteger callsAfterReturn = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> scan.scan(PredicateBuilder.of(Order.class), 2, 1, order -> {
+            if (isReturned.get()) {
+                callsAfterReturn.incrementAndGet();
+            }
+            if (order.getId() >= TestDatabase.ORDERS / 2) {
+                throw new IllegalStateException("failure");
+            }
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(20);
+            while (System.nanoTime() < end) {
+                // ignoring interrupts
+            }
+        }));
+        isReturned.set(true);
+        Thread.sleep(500);
+        assertEquals(0, callsAfterReturn.get());
+    }
+
+    @Test
+    void scanShouldRejectInvalidPartitions() {
+        PartitionedScan<Order> scan = PartitionedScan.of(entityManagerFactory, Order.class, executorService);
+        assertThrows(IllegalArgumentException.class, () -> scan.scan(PredicateBuilder.of(Order.class), 0, order -> {
+        }));
+    }
+
+    private static List<Long> scan(PredicateBuilder<Order> builder, int partitions, int chunkSize) {
+        List<Long> ids = new ArrayList<>();
+        PartitionedScan.of(entityManagerFactory, Order.class, executorService)
+                .scan(builder, partitions, chunkSize, order -> ids.add(order.getId()));
+        return ids.stream().sorted().collect(Collectors.toList());
+    }
+}
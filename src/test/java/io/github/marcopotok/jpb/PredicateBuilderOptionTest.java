@@ -1,12 +1,16 @@
 package io.github.marcopotok.jpb;
 
+import static io.github.marcopotok.jpb.StringUtils.assertStringMatches;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
 import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
 
 class PredicateBuilderOptionTest {
 
@@ -24,4 +28,71 @@ class PredicateBuilderOptionTest {
         Set<Join<Object, ?>> joins = root.getJoins();
         assertEquals(3, joins.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void inListPaddingShouldRepeatLastValueUpToPowerOfTwo() {
+        PredicateBuilder<Object> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPrefetchEngine(new FakePrefetchEngine()).withInListPadding().build());
+        Predicate predicate = builder.withPropertyIn("id", List.of(1, 2, 3))
+                .withPropertyNotIn("other", List.of(1, 2, 3, 4, 5))
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("id in 1,2,3,3 and not other in 1,2,3,4,5,5,5,5", predicate.toString());
+    }
+
+    @Test
+    void inListPaddingShouldKeepPowerOfTwoSizes() {
+        PredicateBuilder<Object> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPrefetchEngine(new FakePrefetchEngine()).withInListPadding().build());
+        Predicate predicate = builder.withPropertyIn("id", List.of(1))
+                .withPropertyIn("other", List.of(1, 2, 3, 4))
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("id in 1 and other in 1,2,3,4", predicate.toString());
+    }
+
+    @Test
+    void inListChunkSizeShouldSplitInPredicates() {
+        PredicateBuilder<Object> builder = new PredicateBuilder<>(PredicateBuilderOptions.builder()
+                .withPrefetchEngine(new FakePrefetchEngine())
+                .withInListChunkSize(2)
+                .build());
+        Predicate predicate = builder.withPropertyIn("id", List.of(1, 2, 3, 4, 5))
+                .withPropertyNotIn("other", List.of(1, 2, 3))
+                .withPropertyIn("single", List.of(1, 2))
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("id in 1,2 or id in 3,4 or id in 5 and not other in 1,2 and not other in 3 and "
+                + "single in 1,2", predicate.toString());
+    }
+
+    @Test
+    void inListPaddingShouldNotExceedChunkSize() {
+        PredicateBuilder<Object> builder = new PredicateBuilder<>(PredicateBuilderOptions.builder()
+                .withPrefetchEngine(new FakePrefetchEngine())
+                .withInListChunkSize(3)
+                .withInListPadding()
+                .build());
+        Predicate predicate = builder.withPropertyIn("id", List.of(1, 2, 3, 4, 5))
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("id in 1,2,3 or id in 4,5", predicate.toString());
+    }
+
+    @Test
+    void inListChunkSizeShouldBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> PredicateBuilderOptions.builder().withInListChunkSize(0));
+    }
+
+    @Test
+    void inListRangeCompressionShouldCollapseIntegralValues() {
+        PredicateBuilder<Object> builder = new PredicateBuilder<>(PredicateBuilderOptions.builder()
+                .withPrefetchEngine(new FakePrefetchEngine())
+                .withInListRangeCompression()
+                .withInListChunkSize(2)
+                .build());
+        Predicate predicate = builder.withPropertyIn("id", List.of(6L, 1L, 2L, 3L, 3L, 8L, 10L))
+                .withPropertyIn("name", List.of("a", "b", "c"))
+                .withPropertyIn("mixed", List.of(1, 2L, 3))
+                .build(new FakeRoot<>(""), new FakeCriteriaQuery(), new FakeCriteriaBuilder());
+        assertStringMatches("id between 1 and 3 or id in 6,8 or id in 10 and name in a,b or name in c and mixed in 1,2 or "
+                + "mixed in 3",
+                predicate.toString());
+    }
+}
@@ -95,6 +95,37 @@ class PredicateBuilderTest {
         assertStringMatches("not attribute in v1,v2", predicate.toString());
     }
 
+    @Test
+    void withPropertyInLongArray() {
+        Predicate predicate = build(builder.withPropertyIn("attribute", new long[] { 9, 3, 1, 2, 3, 4, 7, 10 }));
+        assertStringMatches("attribute between 1 and 4 or attribute in 7,9,10", predicate.toString());
+    }
+
+    @Test
+    void withPropertyInIntArray() {
+        Predicate predicate = build(builder.withPropertyIn("attribute", new int[] { 5, 4, 3, 8, 9, 10, 11 }));
+        assertStringMatches("attribute between 3 and 5 or attribute between 8 and 11", predicate.toString());
+    }
+
+    @Test
+    void withPropertyNotInLongArray() {
+        Predicate predicate = build(builder.withPropertyNotIn("attribute", new long[] { 1, 2, 3, 5 }));
+        assertStringMatches("not attribute between 1 and 3 and not attribute in 5", predicate.toString());
+    }
+
+    @Test
+    void withPropertyInNullArrayShouldBeIgnored() {
+        Predicate predicate = build(builder.withPropertyIn("attribute", (long[]) null)
+                .withPropertyNotIn("attribute", (int[]) null));
+        assertStringMatches("1=1", predicate.toString());
+    }
+
+    @Test
+    void withPropertyInEmptyArray() {
+        Predicate predicate = build(builder.withPropertyIn("attribute", new long[0]));
+        assertStringMatches("attribute in", predicate.toString());
+    }
+
     @Test
     void withMultipleProperty() {
         Predicate predicate = build(builder.withProperty("attribute", "value").withProperty("attribute2", "value2"));
@@ -382,7 +413,20 @@ class PredicateBuilderTest {
     @Test
     void prefetch() {
         build(builder.prefetch("name").prefetch("surname"));
-        assertStringMatches("prefetch name prefetch surname", prefetchEngine.toString());
+        assertStringMatches("prefetch name,surname", prefetchEngine.toString());
+    }
+
+    @Test
+    void prefetchesShouldBeMerged() {
+        build(builder.prefetch("user.profile")
+                .prefetch("user.[profile.picture,roles]")
+                .and(new PredicateBuilder<>().prefetch("user.roles,address")));
+        assertStringMatches("prefetch user.[profile.picture,roles],address", prefetchEngine.toString());
+    }
+
+    @Test
+    void invalidPrefetchShouldBeRejected() {
+        Assertions.assertThrows(IllegalArgumentException.class, () -> builder.prefetch("user.[profile"));
     }
 
     private Predicate build(PredicateBuilder<Object> builder) {
@@ -0,0 +1,190 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+class PrefetchTest extends DatabaseTest {
+
+    private CriteriaQuery<Order> query;
+    private Root<Order> root;
+
+    @BeforeEach
+    void setUp() {
+        query = criteriaBuilder.createQuery(Order.class);
+        root = query.from(Order.class);
+    }
+
+    @Test
+    void toOneFetchShouldBeReusedAsJoin() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class)
+                .prefetch("customer")
+                .withProperty("customer.name", "customer 1"));
+        assertEquals(0, root.getJoins().size());
+        assertEquals(List.of(3L, 4L, 5L), ids(orders));
+    }
+
+    @Test
+    void collectionFetchShouldNotBeReusedAsJoin() {
+        find(PredicateBuilder.of(Order.class).prefetch("items").withProperty("items.name", "item 1"));
+        assertEquals(List.of(JoinType.LEFT), joinTypes());
+    }
+
+    @Test
+    void fetchShouldNotBeReusedAgainstExplicitJoinType() {
+        find(PredicateBuilder.of(Order.class)
+                .prefetch("customer")
+                .withJoinType("customer", JoinType.INNER)
+                .withNullProperty("customer.name"));
+        assertEquals(List.of(JoinType.INNER), joinTypes());
+    }
+
+    @Test
+    void restrictedJoinShouldNotReuseFetch() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class)
+                .prefetch("customer")
+                .withProperty("customer.name", "customer 1")
+                .with((criteriaBuilder, pathProvider) -> criteriaBuilder.isNotNull(
+                        pathProvider.get("customer.name", join -> criteriaBuilder.conjunction()))));
+        assertEquals(1, root.getJoins().size());
+        assertEquals(List.of(3L, 4L, 5L), ids(orders));
+    }
+
+    @Test
+    void multipleCollectionPrefetchesShouldBeRejected() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).prefetch("customer.orders").prefetch("items");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> find(builder));
+        assertTrue(exception.getMessage().contains("[customer.orders, items]"));
+    }
+
+    @Test
+    void multipleCollectionPrefetchesCanBeAllowed() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withMultipleCollectionPrefetches().build());
+        find(builder.prefetch("items").prefetch("payments"));
+        assertEquals(2, root.getFetches().size());
+    }
+
+    @Test
+    void nestedCollectionPrefetchesShouldBeAllowed() {
+        List<Order> orders = find(PredicateBuilder.of(Order.class).prefetch("customer.orders.items")
+                .withProperty("id", 4L));
+        assertEquals(1, root.getFetches().size());
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, orders.get(0).getCustomer().getOrders().size());
+    }
+
+    @Test
+    void collectionsUnderNestedBranchesShouldBeRejected() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).prefetch("customer.orders.[items,payments]");
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> find(builder));
+        assertTrue(exception.getMessage().contains("[customer.orders.items, customer.orders.payments]"));
+    }
+
+    @Test
+    void singleCollectionPrefetchShouldBeAllowed() {
+        find(PredicateBuilder.of(Order.class).prefetch("customer.referrer").prefetch("items"));
+        assertEquals(2, root.getFetches().size());
+    }
+
+    @Test
+    void entityQueryShouldFetchBeforeSelection() {
+        PredicateBuilder.of(Order.class).prefetch("customer").build(root, query, criteriaBuilder);
+        assertEquals(1, root.getFetches().size());
+    }
+
+    @Test
+    void projectionShouldNotFetch() {
+        CriteriaQuery<Tuple> tupleQuery = criteriaBuilder.createTupleQuery();
+        Root<Order> tupleRoot = tupleQuery.from(Order.class);
+        tupleQuery.multiselect(tupleRoot.get("id"), tupleRoot.get("status"))
+                .where(PredicateBuilder.of(Order.class)
+                        .withProperty("customer.id", 1L)
+                        .prefetch("customer")
+                        .build(tupleRoot, tupleQuery, criteriaBuilder));
+        assertTrue(tupleRoot.getFetches().isEmpty());
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, entityManager.createQuery(tupleQuery).getResultList().size());
+    }
+
+    @Test
+    void aggregationShouldNotFetch() {
+        CriteriaQuery<Object[]> aggregateQuery = criteriaBuilder.createQuery(Object[].class);
+        Root<Order> aggregateRoot = aggregateQuery.from(Order.class);
+        aggregateQuery.multiselect(aggregateRoot.get("status"), criteriaBuilder.count(aggregateRoot))
+                .groupBy(aggregateRoot.get("status"));
+        aggregateQuery.where(PredicateBuilder.of(Order.class)
+                .prefetch("customer")
+                .build(aggregateRoot, aggregateQuery, criteriaBuilder));
+        assertTrue(aggregateRoot.getFetches().isEmpty());
+        assertEquals(2, entityManager.createQuery(aggregateQuery).getResultList().size());
+    }
+
+    @Test
+    void builderProjectionShouldNotFetch() {
+        CriteriaQuery<Object> untypedQuery = criteriaBuilder.createQuery();
+        Root<Order> untypedRoot = untypedQuery.from(Order.class);
+        untypedQuery.where(PredicateBuilder.of(Order.class)
+                .project("id", "status")
+                .prefetch("customer")
+                .withProperty("customer.id", 1L)
+                .build(untypedRoot, untypedQuery, criteriaBuilder));
+        assertTrue(untypedRoot.getFetches().isEmpty());
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, entityManager.createQuery(untypedQuery).getResultList().size());
+    }
+
+    @Test
+    void builderGroupingShouldNotFetch() {
+        PredicateBuilder.of(Order.class)
+                .groupBy("status")
+                .project("status")
+                .prefetch("customer")
+                .build(root, query, criteriaBuilder);
+        assertTrue(root.getFetches().isEmpty());
+    }
+
+    @Test
+    void templateGroupingShouldNotFetch() {
+        CriteriaQuery<Object[]> aggregateQuery = criteriaBuilder.createQuery(Object[].class);
+        Root<Order> aggregateRoot = aggregateQuery.from(Order.class);
+        QueryTemplate<Order> template = PredicateBuilder.of(Order.class)
+                .prefetch("customer")
+                .and(PredicateBuilder.of(Order.class).groupBy("status").project("status"))
+                .compile();
+        aggregateQuery.where(template.build(aggregateRoot, aggregateQuery, criteriaBuilder));
+        assertTrue(aggregateRoot.getFetches().isEmpty());
+        assertEquals(2, entityManager.createQuery(aggregateQuery).getResultList().size());
+    }
+
+    @Test
+    void nonEntityResultShouldNotFetchBeforeSelection() {
+        CriteriaQuery<Integer> countQuery = criteriaBuilder.createQuery(Integer.class);
+        Root<Order> countRoot = countQuery.from(Order.class);
+        PredicateBuilder.of(Order.class).prefetch("customer").build(countRoot, countQuery, criteriaBuilder);
+        assertTrue(countRoot.getFetches().isEmpty());
+    }
+
+    private List<Order> find(PredicateBuilder<Order> builder) {
+        query.select(root).where(builder.build(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    private List<JoinType> joinTypes() {
+        return root.getJoins().stream().map(Join::getJoinType).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,319 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Customer;
+import io.github.marcopotok.jpb.model.Order;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+class QueryExecutorTest extends DatabaseTest {
+
+    private QueryExecutor<Order> executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = QueryExecutor.of(entityManager, Order.class);
+    }
+
+    @Test
+    void findAll() {
+        List<Order> orders = executor.findAll(PredicateBuilder.of(Order.class).withProperty("customer.id", 1L));
+        assertEquals(List.of(3L, 4L, 5L), ids(orders));
+    }
+
+    @Test
+    void findAllWithParameterizedValues() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withParameterizedValues().build());
+        List<Order> orders = executor.findAll(builder.withPropertyIn("id", List.of(1L, 2L)).withProperty("status", "CLOSED"));
+        assertEquals(List.of(1L, 2L), ids(orders));
+    }
+
+    @Test
+    void findAllWithChunkedInList() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withInListChunkSize(4).withInListPadding().build());
+        List<Order> orders = executor.findAll(builder.withPropertyIn("id", range(0, 10))
+                .withPropertyNotIn("id", List.of(1L, 2L, 3L, 4L, 5L)));
+        assertEquals(List.of(0L, 6L, 7L, 8L, 9L), ids(orders));
+    }
+
+    @Test
+    void findAllWithCompressedRanges() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withParameterizedValues().build());
+        List<Order> orders = executor.findAll(builder.withPropertyIn("id", new long[] { 8, 1, 2, 3, 4, 12 })
+                .withPropertyNotIn("id", new long[] { 2, 3, 4 }));
+        assertEquals(List.of(1L, 8L, 12L), ids(orders));
+    }
+
+    @Test
+    void findAllInShouldMergeChunks() {
+        List<Order> orders = executor.findAllIn(PredicateBuilder.of(Order.class).withProperty("status", "OPEN"), "id",
+                range(0, TestDatabase.ORDERS), 7);
+        assertEquals(LongStream.range(0, TestDatabase.ORDERS).filter(id -> id % 3 == 0).boxed().collect(Collectors.toList()),
+                ids(orders));
+    }
+
+    @Test
+    void findAllInShouldNotDuplicateResults() {
+        List<Order> orders = executor.findAllIn(PredicateBuilder.of(Order.class), "customer.id",
+                List.of(1L, 1L, 2L), 1);
+        assertEquals(List.of(3L, 4L, 5L, 6L, 7L, 8L), ids(orders));
+    }
+
+    @Test
+    void findAllInShouldNotChangeBuilder() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).withProperty("status", "OPEN");
+        executor.findAllIn(builder, "id", List.of(0L), 1);
+        assertEquals(TestDatabase.ORDERS / 3, executor.findAll(builder).size());
+    }
+
+    @Test
+    void findAllInShouldRejectInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class,
+                () -> executor.findAllIn(PredicateBuilder.of(Order.class), "id", List.of(1L), 0));
+    }
+
+    @Test
+    void findSlice() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).withProperty("status", "OPEN");
+        Slice<Order> first = executor.findSlice(builder, 0, 4);
+        Slice<Order> last = executor.findSlice(builder, 2, 4);
+        assertEquals(List.of(0L, 3L, 6L, 9L), first.getContent().stream().map(Order::getId).collect(Collectors.toList()));
+        assertTrue(first.hasNext());
+        assertEquals(List.of(24L, 27L), last.getContent().stream().map(Order::getId).collect(Collectors.toList()));
+        assertFalse(last.hasNext());
+    }
+
+    @Test
+    void findSliceShouldNotHaveNextWhenFull() {
+        Slice<Order> slice = executor.findSlice(PredicateBuilder.of(Order.class).withProperty("status", "OPEN"), 1, 5);
+        assertEquals(5, slice.getContent().size());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void findSliceShouldLoadBatchPrefetches() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPrefetchEngine(new BatchPrefetchEngine()).build());
+        Slice<Order> slice = executor.findSlice(builder.prefetch("items"), 1, 3);
+        entityManager.clear();
+        assertEquals(List.of(3L, 4L, 5L), slice.getContent().stream()
+                .map(order -> order.getItems().iterator().next().getId())
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void findSliceShouldRejectInvalidPage() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class);
+        assertThrows(IllegalArgumentException.class, () -> executor.findSlice(builder, -1, 1));
+        assertThrows(IllegalArgumentException.class, () -> executor.findSlice(builder, 0, 0));
+    }
+
+    @Test
+    void findSliceAfter() {
+        assertEquals(range(0, TestDatabase.ORDERS), findAllAfter(PredicateBuilder.of(Order.class), 7, "id"));
+    }
+
+    @Test
+    void findSliceAfterOnMultipleColumns() {
+        List<Long> expected = LongStream.range(0, TestDatabase.ORDERS)
+                .boxed()
+                .sorted(Comparator.comparing((Long id) -> id % 3 != 0).thenComparing(id -> id))
+                .collect(Collectors.toList());
+        assertEquals(expected, findAllAfter(PredicateBuilder.of(Order.class), 4, "-status", "id"));
+    }
+
+    @Test
+    void findSliceAfterOnJoinedColumn() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withParameterizedValues().build());
+        assertEquals(List.of(8L, 7L, 6L, 5L, 4L, 3L),
+                findAllAfter(builder.withPropertyIn("customer.id", List.of(1L, 2L)), 2, "-customer.name", "-date"));
+    }
+
+    @Test
+    void findSliceAfterShouldNotChangeBuilder() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).withProperty("status", "OPEN");
+        executor.findSliceAfter(builder, executor.cursorOf(entityManager.find(Order.class, 9L), "id"), 1, "id");
+        assertEquals(TestDatabase.ORDERS / 3, executor.findAll(builder).size());
+    }
+
+    @Test
+    void findSliceAfterShouldRejectInvalidCursor() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class);
+        String cursor = executor.cursorOf(entityManager.find(Order.class, 1L), "status", "id");
+        assertThrows(IllegalArgumentException.class, () -> executor.findSliceAfter(builder, "%%", 1, "id"));
+        assertThrows(IllegalArgumentException.class, () -> executor.findSliceAfter(builder, cursor, 1, "id"));
+        assertThrows(IllegalArgumentException.class, () -> executor.findSliceAfter(builder, cursor, 1, "id", "date"));
+    }
+
+    @Test
+    void cursorOfShouldRejectNullColumn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> QueryExecutor.of(entityManager, Customer.class).cursorOf(entityManager.find(Customer.class, 0L),
+                        "referrer.name"));
+    }
+
+    @Test
+    void stream() {
+        PredicateBuilder<Order> builder = PredicateBuilder.of(Order.class).withProperty("status", "CLOSED");
+        try (Stream<Order> orders = executor.stream(builder, 4)) {
+            assertEquals(LongStream.range(0, TestDatabase.ORDERS).filter(id -> id % 3 != 0).boxed().collect(Collectors.toList()),
+                    orders.map(Order::getId).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void streamShouldClearPersistenceContextBetweenChunks() {
+        Iterator<Order> orders = executor.stream(PredicateBuilder.of(Order.class), 10, 5).iterator();
+        Order first = orders.next();
+        assertTrue(entityManager.contains(first));
+        for (int i = 1; i < 10; i++) {
+            orders.next();
+        }
+        assertTrue(entityManager.contains(first));
+        assertEquals(10L, orders.next().getId());
+        assertFalse(entityManager.contains(first));
+    }
+
+    @Test
+    void streamShouldLoadPrefetchesOfEachChunk() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPrefetchEngine(new BatchPrefetchEngine()).build());
+        long loaded = executor.stream(builder.prefetch("items"), 7)
+                .filter(order -> entityManagerFactory.getPersistenceUnitUtil().isLoaded(order, "items"))
+                .count();
+        assertEquals(TestDatabase.ORDERS, loaded);
+    }
+
+    @Test
+    void streamShouldFlushChangesBeforeClearing() {
+        entityManager.getTransaction().begin();
+        try {
+            entityManager.find(Order.class, 0L).setStatus("CHANGED");
+            assertEquals(TestDatabase.ORDERS, executor.stream(PredicateBuilder.of(Order.class), 10).count());
+            assertEquals("CHANGED", entityManager.find(Order.class, 0L).getStatus());
+        } finally {
+            entityManager.getTransaction().rollback();
+        }
+    }
+
+    @Test
+    void streamShouldRejectCollectionFetchJoins() {
+        assertThrows(IllegalArgumentException.class,
+                () -> executor.stream(PredicateBuilder.of(Order.class).prefetch("customer,items"), 10));
+        assertEquals(TestDatabase.ORDERS, executor.stream(PredicateBuilder.of(Order.class).prefetch("customer"), 10)
+                .count());
+    }
+
+    @Test
+    void streamShouldNotQueryBeforeConsumed() {
+        executor.stream(PredicateBuilder.of(Order.class).withProperty("unknown", 1L), 1);
+    }
+
+    @Test
+    void streamShouldRejectInvalidChunkSize() {
+        assertThrows(IllegalArgumentException.class, () -> executor.stream(PredicateBuilder.of(Order.class), 0));
+    }
+
+    @Test
+    void exists() {
+        assertTrue(executor.exists(PredicateBuilder.of(Order.class).withProperty("customer.name", "customer 1")));
+        assertFalse(executor.exists(PredicateBuilder.of(Order.class).withProperty("status", "UNKNOWN")));
+    }
+
+    @Test
+    void existsShouldIgnoreQueryShape() {
+        PredicateBuilder<Order> builder = new PredicateBuilder<>(
+                PredicateBuilderOptions.builder().withPluralSemiJoins().withParameterizedValues().build());
+        assertTrue(executor.exists(builder.distinct()
+                .prefetch("customer,items")
+                .groupBy("status")
+                .project("status")
+                .withProperty("items.name", "item 7")));
+    }
+
+    @Test
+    void count() {
+        assertEquals(TestDatabase.ORDERS / 3, executor.count(PredicateBuilder.of(Order.class).withProperty("status", "OPEN")));
+    }
+
+    @Test
+    void countShouldNotMultiplyRowsOfCollections() {
+        long count = QueryExecutor.of(entityManager, Customer.class)
+                .count(PredicateBuilder.of(Customer.class).withProperty("orders.status", "CLOSED"));
+        assertEquals(TestDatabase.CUSTOMERS, count);
+    }
+
+    @Test
+    void countShouldIgnoreDistinctAndPrefetch() {
+        long count = executor.count(PredicateBuilder.of(Order.class)
+                .distinct()
+                .prefetch("customer.referrer,items")
+                .withProperty("customer.name", "customer 1"));
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, count);
+    }
+
+    @Test
+    void countShouldIgnoreGroupingAndOrdering() {
+        long count = executor.count(PredicateBuilder.of(Order.class)
+                .groupBy("status")
+                .project("status")
+                .after(null, "-date")
+                .withProperty("customer.name", "customer 1"));
+        assertEquals(TestDatabase.ORDERS_PER_CUSTOMER, count);
+    }
+
+    @Test
+    void buildCountShouldOnlyJoinForPredicates() {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Order> root = query.from(Order.class);
+        query.orderBy(criteriaBuilder.asc(root.get("date")));
+        PredicateBuilder.of(Order.class).prefetch("customer").withProperty("status", "OPEN")
+                .buildCount(root, query, criteriaBuilder);
+        assertTrue(root.getJoins().isEmpty());
+        assertTrue(root.getFetches().isEmpty());
+        assertTrue(query.getOrderList().isEmpty());
+        assertEquals(TestDatabase.ORDERS / 3, entityManager.createQuery(query).getSingleResult());
+    }
+
+    private List<Long> findAllAfter(PredicateBuilder<Order> builder, int size, String... columns) {
+        List<Long> ids = new ArrayList<>();
+        Slice<Order> slice = executor.findSliceAfter(builder, null, size, columns);
+        slice.getContent().forEach(order -> ids.add(order.getId()));
+        while (slice.hasNext()) {
+            slice = executor.findSliceAfter(builder, slice.getNextCursor(), size, columns);
+            slice.getContent().forEach(order -> ids.add(order.getId()));
+        }
+        assertNull(slice.getNextCursor());
+        return ids;
+    }
+
+    private static List<Long> range(long from, long to) {
+        return LongStream.range(from, to).boxed().collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Order> orders) {
+        return orders.stream().map(Order::getId).sorted().collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.marcopotok.jpb;
+
+import static io.github.marcopotok.jpb.StringUtils.assertStringMatches;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.persistence.criteria.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryTemplateTest {
+
+    private static final Placeholder<String> NAME = Placeholder.named("name");
+    private static final Placeholder<Collection<Integer>> IDS = Placeholder.named("ids");
+    private static final Placeholder<Integer> VERSION = Placeholder.named("version");
+
+    private PredicateBuilder<Object> builder;
+    private FakeCriteriaQuery query;
+    private FakePrefetchEngine prefetchEngine;
+
+    @BeforeEach
+    void setUp() {
+        query = new FakeCriteriaQuery();
+        prefetchEngine = new FakePrefetchEngine();
+        builder = new PredicateBuilder<>(PredicateBuilderOptions.builder().withPrefetchEngine(prefetchEngine).build());
+    }
+
+    @Test
+    void boundPlaceholderShouldResultInPredicate() {
+        QueryTemplate<Object> template = builder.withProperty("user.name", NAME).compile();
+        Predicate predicate = build(template, Map.of("name", "value"));
+        assertStringMatches("join user name equal value", predicate.toString());
+    }
+
+    @Test
+    void unboundPlaceholderShouldBeIgnored() {
+        QueryTemplate<Object> template = builder.withProperty("name", NAME).withProperty("type", "fixed").compile();
+        Predicate predicate = build(template, Map.of());
+        assertStringMatches("type equal fixed", predicate.toString());
+    }
+
+    @Test
+    void placeholderOnBuilderShouldBeIgnored() {
+        Predicate predicate = builder.withProperty("name", NAME)
+                .build(new FakeRoot<>(""), query, new FakeCriteriaBuilder());
+        assertStringMatches("1=1", predicate.toString());
+    }
+
+    @Test
+    void templateShouldBindEveryBuildIndependently() {
+        QueryTemplate<Object> template = builder.withProperty("name", NAME).compile();
+        assertStringMatches("name equal first", build(template, Map.of("name", "first")).toString());
+        assertStringMatches("name equal second", build(template, Map.of("name", "second")).toString());
+    }
+
+    @Test
+    void collectionAndRangePlaceholders() {
+        QueryTemplate<Object> template = builder.withPropertyIn("id", IDS)
+                .withPropertyNotIn("other", IDS)
+                .withPropertyAfter("version", VERSION)
+                .withPropertyBeforeInclusive("version", VERSION)
+                .compile();
+        Predicate predicate = build(template, Map.of("ids", List.of(1, 2), "version", 3));
+        assertStringMatches("id in 1,2 and not other in 1,2 and version > 3 and version <= 3", predicate.toString());
+    }
+
+    @Test
+    void stringPlaceholdersShouldBeConverted() {
+        QueryTemplate<Object> template = builder.withPropertyIgnoreCaseBoundTo("name", NAME)
+                .withPropertyNotIgnoreCaseBoundTo("other", NAME)
+                .withPropertyLikeIgnoreCaseBoundTo("description", NAME)
+                .withPropertyStartingWithBoundTo("code", NAME)
+                .compile();
+        Predicate predicate = build(template, Map.of("name", "*Va"));
+        assertStringMatches("upper(name) equal *VA and upper(other) not equal *VA and upper(description) like %VA "
+                + "and upper(code) like *VA%", predicate.toString());
+        assertStringMatches("1=1", build(template, Map.of()).toString());
+    }
+
+    @Test
+    void templateShouldNotChangeWithBuilder() {
+        QueryTemplate<Object> template = builder.withProperty("name", NAME).prefetch("user").compile();
+        builder.withProperty("other", "value").prefetch("other");
+        Predicate predicate = build(template, Map.of("name", "value"));
+        assertStringMatches("name equal value", predicate.toString());
+        assertStringMatches("prefetch user", prefetchEngine.toString());
+    }
+
+    @Test
+    void joinsShouldNotBeSharedAcrossBuilds() {
+        QueryTemplate<Object> template = builder.withProperty("user.name", NAME)
+                .withProperty("user.surname", "surname")
+                .compile();
+        FakeRoot<Object> first = new FakeRoot<>("");
+        FakeRoot<Object> second = new FakeRoot<>("");
+        template.build(first, query, new FakeCriteriaBuilder(), Map.of("name", "value"));
+        template.build(second, query, new FakeCriteriaBuilder(), Map.of("name", "value"));
+        assertEquals(1, first.getJoins().size());
+        assertEquals(1, second.getJoins().size());
+    }
+
+    private Predicate build(QueryTemplate<Object> template, Map<String, ?> values) {
+        return template.build(new FakeRoot<>(""), query, new FakeCriteriaBuilder(), values);
+    }
+}
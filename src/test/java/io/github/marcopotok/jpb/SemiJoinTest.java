@@ -0,0 +1,99 @@
+package io.github.marcopotok.jpb;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.github.marcopotok.jpb.model.Customer;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+class SemiJoinTest extends DatabaseTest {
+
+    private CriteriaQuery<Customer> query;
+    private Root<Customer> root;
+
+    @BeforeEach
+    void setUp() {
+        query = criteriaBuilder.createQuery(Customer.class);
+        root = query.from(Customer.class);
+    }
+
+    @Test
+    void pluralPathShouldNotMultiplyRows() {
+        long rows = countRows(builder(PredicateBuilderOptions.builder().withPluralSemiJoins())
+                .withProperty("orders.status", "CLOSED"));
+        assertEquals(TestDatabase.CUSTOMERS, rows);
+    }
+
+    @Test
+    void joinedPluralPathShouldMultiplyRows() {
+        long rows = countRows(PredicateBuilder.of(Customer.class).withProperty("orders.status", "CLOSED"));
+        assertEquals(TestDatabase.CUSTOMERS * 2, rows);
+    }
+
+    @Test
+    void predicatesOnSameRelationShouldMatchSameElement() {
+        List<Customer> customers = find(builder(PredicateBuilderOptions.builder().withPluralSemiJoins())
+                .withProperty("orders.status", "OPEN")
+                .withProperty("orders.id", 4L));
+        assertEquals(List.of(), ids(customers));
+    }
+
+    @Test
+    void predicatesWithoutJoinCacheShouldMatchAnyElement() {
+        List<Customer> customers = find(builder(PredicateBuilderOptions.builder()
+                .withPluralSemiJoins()
+                .withoutJoinsCache())
+                .withProperty("orders.status", "OPEN")
+                .withProperty("orders.id", 4L));
+        assertEquals(List.of(1L), ids(customers));
+    }
+
+    @Test
+    void semiJoinPerRelation() {
+        List<Customer> customers = find(PredicateBuilder.of(Customer.class)
+                .withSemiJoin("orders")
+                .withPropertyIn("orders.items.name", List.of("item 4", "item 5", "item 7"))
+                .withProperty("address.city", "city 1"));
+        assertEquals(0, root.getJoins().size());
+        assertEquals(List.of(1L), ids(customers));
+    }
+
+    @Test
+    void explicitJoinTypeShouldOverrideSemiJoin() {
+        long rows = countRows(builder(PredicateBuilderOptions.builder().withPluralSemiJoins())
+                .withJoinType("orders", JoinType.INNER)
+                .withProperty("orders.status", "CLOSED"));
+        assertEquals(TestDatabase.CUSTOMERS * 2, rows);
+    }
+
+    private static PredicateBuilder<Customer> builder(PredicateBuilderOptions.Builder options) {
+        return new PredicateBuilder<>(options.build());
+    }
+
+    private List<Customer> find(PredicateBuilder<Customer> builder) {
+        query.select(root).where(builder.build(root, query, criteriaBuilder));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    /**
+     * @return the number of rows of the query, as entities are deduplicated in the results by the provider
+     */
+    private long countRows(PredicateBuilder<Customer> builder) {
+        CriteriaQuery<Long> countQuery = criteriaBuilder.createQuery(Long.class);
+        Root<Customer> countRoot = countQuery.from(Customer.class);
+        countQuery.select(criteriaBuilder.count(countRoot))
+                .where(builder.build(countRoot, countQuery, criteriaBuilder));
+        return entityManager.createQuery(countQuery).getSingleResult();
+    }
+
+    private static List<Long> ids(List<Customer> customers) {
+        return customers.stream().map(Customer::getId).sorted().collect(Collectors.toList());
+    }
+}
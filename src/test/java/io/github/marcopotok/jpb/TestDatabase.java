@@ -0,0 +1,79 @@
+package io.github.marcopotok.jpb;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+
+import io.github.marcopotok.jpb.model.Address;
+import io.github.marcopotok.jpb.model.Customer;
+import io.github.marcopotok.jpb.model.Item;
+import io.github.marcopotok.jpb.model.Order;
+import io.github.marcopotok.jpb.model.Payment;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * In-memory H2 database mapped by Hibernate, with {@value CUSTOMERS} customers having {@value ORDERS_PER_CUSTOMER}
+ * orders each. Every order has the same id of its single item and payment.
+ */
+final class TestDatabase {
+
+    static final int CUSTOMERS = 10;
+    static final int ORDERS_PER_CUSTOMER = 3;
+    static final int ORDERS = CUSTOMERS * ORDERS_PER_CUSTOMER;
+
+    private TestDatabase() {
+    }
+
+    static EntityManagerFactory create() {
+        EntityManagerFactory entityManagerFactory = new Configuration()
+                .setProperty(AvailableSettings.URL, "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .addAnnotatedClass(Customer.class)
+                .addAnnotatedClass(Order.class)
+                .addAnnotatedClass(Item.class)
+                .addAnnotatedClass(Payment.class)
+                .buildSessionFactory();
+        seed(entityManagerFactory);
+        return entityManagerFactory;
+    }
+
+    private static void seed(EntityManagerFactory entityManagerFactory) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        entityManager.getTransaction().begin();
+        Customer referrer = null;
+        for (long customerId = 0, orderId = 0; customerId < CUSTOMERS; customerId++) {
+            Customer customer = new Customer();
+            customer.setId(customerId);
+            customer.setName("customer " + customerId);
+            Address address = new Address();
+            address.setCity("city " + customerId % 3);
+            customer.setAddress(address);
+            customer.setReferrer(referrer);
+            entityManager.persist(customer);
+            for (int i = 0; i < ORDERS_PER_CUSTOMER; i++, orderId++) {
+                Order order = new Order();
+                order.setId(orderId);
+                order.setStatus(orderId % 3 == 0 ? "OPEN" : "CLOSED");
+                order.setDate(Instant.ofEpochSecond(orderId));
+                order.setCustomer(customer);
+                entityManager.persist(order);
+                Item item = new Item();
+                item.setId(orderId);
+                item.setName("item " + orderId);
+                item.setOrder(order);
+                entityManager.persist(item);
+                Payment payment = new Payment();
+                payment.setId(orderId);
+                payment.setAmount(orderId * 10);
+                payment.setOrder(order);
+                entityManager.persist(payment);
+            }
+            referrer = customer;
+        }
+        entityManager.getTransaction().commit();
+        entityManager.close();
+    }
+}
@@ -0,0 +1,61 @@
+package io.github.marcopotok.jpb.model;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+
+@Entity
+public class Customer {
+
+    @Id
+    private Long id;
+    private String name;
+    @Embedded
+    private Address address;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Customer referrer;
+    @OneToMany(mappedBy = "customer")
+    private Set<Order> orders = new HashSet<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Address getAddress() {
+        return address;
+    }
+
+    public void setAddress(Address address) {
+        this.address = address;
+    }
+
+    public Customer getReferrer() {
+        return referrer;
+    }
+
+    public void setReferrer(Customer referrer) {
+        this.referrer = referrer;
+    }
+
+    public Set<Order> getOrders() {
+        return orders;
+    }
+}
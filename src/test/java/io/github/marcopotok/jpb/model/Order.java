@@ -0,0 +1,68 @@
+package io.github.marcopotok.jpb.model;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(name = "orders")
+public class Order {
+
+    @Id
+    private Long id;
+    private String status;
+    private Instant date;
+    @ManyToOne(fetch = FetchType.LAZY)
+    private Customer customer;
+    @OneToMany(mappedBy = "order")
+    private Set<Item> items = new HashSet<>();
+    @OneToMany(mappedBy = "order")
+    private Set<Payment> payments = new HashSet<>();
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Instant getDate() {
+        return date;
+    }
+
+    public void setDate(Instant date) {
+        this.date = date;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+
+    public void setCustomer(Customer customer) {
+        this.customer = customer;
+    }
+
+    public Set<Item> getItems() {
+        return items;
+    }
+
+    public Set<Payment> getPayments() {
+        return payments;
+    }
+}